@@ -14,7 +14,8 @@ public interface HotelServiceClient {
     List<RoomDto> getRecommendedRooms(
             @RequestParam(required = false) Long hotelId,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate);
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) Integer limit);
 
     @GetMapping("/api/rooms/{id}")
     RoomDto getRoomById(@PathVariable Long id);
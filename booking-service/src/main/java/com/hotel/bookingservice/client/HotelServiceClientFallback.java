@@ -13,7 +13,7 @@ import java.util.List;
 public class HotelServiceClientFallback implements HotelServiceClient {
 
     @Override
-    public List<RoomDto> getRecommendedRooms(Long hotelId, LocalDate startDate, LocalDate endDate) {
+    public List<RoomDto> getRecommendedRooms(Long hotelId, LocalDate startDate, LocalDate endDate, Integer limit) {
         log.error("Fallback: Hotel service is unavailable - getRecommendedRooms");
         throw new HotelServiceException("Hotel service is currently unavailable. Please try again later.");
     }
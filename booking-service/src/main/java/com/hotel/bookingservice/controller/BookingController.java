@@ -50,6 +50,16 @@ public class BookingController {
         return ResponseEntity.ok(bookingService.getUserBookings(principal.getId(), pageable));
     }
 
+    @GetMapping("/bookings/scroll")
+    @Operation(summary = "Get user's booking history, newest first, with keyset pagination",
+               description = "Pass nextCursor of a page as cursor to read the next one")
+    public ResponseEntity<CursorPage<BookingDto>> scrollUserBookings(
+            @AuthenticationPrincipal UserPrincipal principal,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(bookingService.scrollUserBookings(principal.getId(), cursor, size));
+    }
+
     @GetMapping("/booking/{id}")
     @Operation(summary = "Get booking by ID")
     public ResponseEntity<BookingDto> getBookingById(
@@ -1,5 +1,6 @@
 package com.hotel.bookingservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hotel.bookingservice.dto.*;
 import com.hotel.bookingservice.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,9 +12,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +28,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
@@ -33,6 +37,14 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream all users as newline-delimited JSON",
+               description = "Admin only. One user per line, written while users are read from the database")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        return NdjsonResponse.of(objectMapper, userService::streamAllUsers);
+    }
+
     @GetMapping("/page")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get users with pagination", description = "Admin only")
@@ -40,6 +52,16 @@ public class UserController {
         return ResponseEntity.ok(userService.getUsers(pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get users with keyset pagination",
+               description = "Admin only. Pass nextCursor of a page as cursor to read the next one")
+    public ResponseEntity<CursorPage<UserDto>> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(userService.scrollUsers(cursor, size));
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Get user by ID", description = "Admin only")
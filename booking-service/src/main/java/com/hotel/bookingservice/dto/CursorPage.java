@@ -0,0 +1,18 @@
+package com.hotel.bookingservice.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing. {@code nextCursor} is passed back as {@code cursor} to read the following page
+ * and is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+}
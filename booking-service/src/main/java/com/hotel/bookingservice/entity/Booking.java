@@ -8,7 +8,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "bookings", indexes = {
-    @Index(name = "idx_booking_user", columnList = "user_id"),
+    @Index(name = "idx_booking_user_created", columnList = "user_id, created_at, id"),
     @Index(name = "idx_booking_room_dates", columnList = "room_id, start_date, end_date"),
     @Index(name = "idx_booking_request_id", columnList = "request_id", unique = true)
 })
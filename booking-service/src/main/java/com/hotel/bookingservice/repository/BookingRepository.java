@@ -2,6 +2,7 @@ package com.hotel.bookingservice.repository;
 
 import com.hotel.bookingservice.entity.Booking;
 import com.hotel.bookingservice.entity.BookingStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,10 +44,25 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.createdAt DESC")
     Page<Booking> findUserBookingsOrderByCreatedAtDesc(@Param("userId") Long userId, Pageable pageable);
 
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findUserBookingsNewestFirst(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * Keyset continuation of {@link #findUserBookingsNewestFirst}: bookings older than the given
+     * {@code (createdAt, id)} key, served from the {@code idx_booking_user_created} index.
+     */
+    @Query("SELECT b FROM Booking b WHERE b.user.id = :userId AND " +
+           "(b.createdAt < :createdAt OR (b.createdAt = :createdAt AND b.id < :beforeId)) " +
+           "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findUserBookingsBefore(@Param("userId") Long userId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("beforeId") Long beforeId,
+                                         Limit limit);
+
     Optional<Booking> findByIdAndUserId(Long id, Long userId);
 
     List<Booking> findByStatus(BookingStatus status);
 
     @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' AND b.createdAt < :threshold")
-    List<Booking> findStalePendingBookings(@Param("threshold") java.time.LocalDateTime threshold);
+    List<Booking> findStalePendingBookings(@Param("threshold") LocalDateTime threshold);
 }
@@ -8,12 +8,14 @@ import com.hotel.bookingservice.repository.BookingRepository;
 import com.hotel.bookingservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -41,6 +43,28 @@ public class BookingService {
                 .map(bookingMapper::toDto);
     }
 
+    /**
+     * The user's bookings newest first, after the position encoded in {@code cursor} or from the start if it is
+     * null. Seeks on {@code (createdAt, id)} instead of skipping rows and runs no COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookingDto> scrollUserBookings(Long userId, String cursor, int size) {
+        log.debug("Scrolling bookings for user: {} after cursor {}", userId, cursor);
+        int pageSize = KeysetCursor.validSize(size);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Booking> bookings;
+        if (cursor == null) {
+            bookings = bookingRepository.findUserBookingsNewestFirst(userId, limit);
+        } else {
+            BookingKey key = KeysetCursor.decode(cursor, 2,
+                    parts -> new BookingKey(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1])));
+            bookings = bookingRepository.findUserBookingsBefore(userId, key.createdAt(), key.id(), limit);
+        }
+        CursorPage<Booking> page = KeysetCursor.page(bookings, pageSize,
+                booking -> KeysetCursor.encode(booking.getCreatedAt(), booking.getId()));
+        return new CursorPage<>(bookingMapper.toDtoList(page.getContent()), page.getNextCursor());
+    }
+
     @Transactional(readOnly = true)
     public BookingDto getBookingById(Long bookingId, Long userId) {
         log.debug("Fetching booking {} for user {}", bookingId, userId);
@@ -171,10 +195,12 @@ public class BookingService {
             log.debug("Auto-selecting room for hotel {} and dates {} - {}",
                     request.getHotelId(), request.getStartDate(), request.getEndDate());
 
+            // Only the top-ranked room is used, so hotel-service is asked for just that one
             List<RoomDto> recommendedRooms = hotelServiceCaller.getRecommendedRooms(
                     request.getHotelId(),
                     request.getStartDate(),
-                    request.getEndDate());
+                    request.getEndDate(),
+                    1);
 
             if (recommendedRooms.isEmpty()) {
                 throw new BookingException("No available rooms found for the selected dates");
@@ -248,4 +274,7 @@ public class BookingService {
             throw new IllegalArgumentException("Start date cannot be in the past");
         }
     }
+
+    private record BookingKey(LocalDateTime createdAt, long id) {
+    }
 }
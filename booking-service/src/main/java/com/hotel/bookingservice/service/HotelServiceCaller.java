@@ -25,9 +25,9 @@ public class HotelServiceCaller {
 
     @CircuitBreaker(name = "hotelService", fallbackMethod = "getRecommendedRoomsFallback")
     @Retry(name = "hotelService")
-    public List<RoomDto> getRecommendedRooms(Long hotelId, LocalDate startDate, LocalDate endDate) {
-        log.debug("Fetching recommended rooms for hotel {} and dates {} - {}", hotelId, startDate, endDate);
-        return hotelServiceClient.getRecommendedRooms(hotelId, startDate, endDate);
+    public List<RoomDto> getRecommendedRooms(Long hotelId, LocalDate startDate, LocalDate endDate, Integer limit) {
+        log.debug("Fetching {} recommended rooms for hotel {} and dates {} - {}", limit, hotelId, startDate, endDate);
+        return hotelServiceClient.getRecommendedRooms(hotelId, startDate, endDate, limit);
     }
 
     @CircuitBreaker(name = "hotelService", fallbackMethod = "getRoomByIdFallback")
@@ -58,7 +58,8 @@ public class HotelServiceCaller {
 
     // Fallback methods
 
-    private List<RoomDto> getRecommendedRoomsFallback(Long hotelId, LocalDate startDate, LocalDate endDate, Exception e) {
+    private List<RoomDto> getRecommendedRoomsFallback(Long hotelId, LocalDate startDate, LocalDate endDate,
+                                                      Integer limit, Exception e) {
         log.error("Circuit breaker fallback for getRecommendedRooms: {}", e.getMessage());
         throw new HotelServiceException("Hotel service is unavailable. Please try again later.", e);
     }
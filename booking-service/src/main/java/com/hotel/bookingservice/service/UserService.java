@@ -5,8 +5,10 @@ import com.hotel.bookingservice.entity.*;
 import com.hotel.bookingservice.exception.*;
 import com.hotel.bookingservice.mapper.UserMapper;
 import com.hotel.bookingservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -14,6 +16,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,17 +28,44 @@ public class UserService {
     private final UserRepository userRepository;
     private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final EntityManager entityManager;
 
     public List<UserDto> getAllUsers() {
         log.debug("Fetching all users");
         return userMapper.toDtoList(userRepository.findAll());
     }
 
+    /**
+     * Passes every user to {@code sink} while reading them from a cursor, detaching each one once it is mapped so
+     * memory use does not grow with the number of users.
+     */
+    public void streamAllUsers(Consumer<UserDto> sink) {
+        log.debug("Streaming all users");
+        try (Stream<User> users = userRepository.streamAllBy()) {
+            users.forEach(user -> {
+                sink.accept(userMapper.toDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
     public Page<UserDto> getUsers(Pageable pageable) {
         log.debug("Fetching users with pagination: {}", pageable);
         return userRepository.findAll(pageable).map(userMapper::toDto);
     }
 
+    /**
+     * Users in id order after the position encoded in {@code cursor}, or from the start if it is null.
+     */
+    public CursorPage<UserDto> scrollUsers(String cursor, int size) {
+        log.debug("Scrolling users after cursor {}, size {}", cursor, size);
+        int pageSize = KeysetCursor.validSize(size);
+        long afterId = cursor != null ? KeysetCursor.decode(cursor, 1, key -> Long.parseLong(key[0])) : 0;
+        List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        CursorPage<User> page = KeysetCursor.page(users, pageSize, user -> KeysetCursor.encode(user.getId()));
+        return new CursorPage<>(userMapper.toDtoList(page.getContent()), page.getNextCursor());
+    }
+
     public UserDto getUserById(Long id) {
         log.debug("Fetching user by id: {}", id);
         User user = userRepository.findById(id)
@@ -1,5 +1,6 @@
 package com.hotel.bookingservice.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hotel.bookingservice.dto.*;
 import com.hotel.bookingservice.entity.*;
@@ -23,10 +24,15 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -245,7 +251,7 @@ class BookingControllerIntegrationTest {
                 .confirmed(true)
                 .build();
 
-        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any()))
+        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any(), eq(1)))
                 .thenReturn(Arrays.asList(recommendedRoom));
         when(hotelServiceCaller.confirmAvailability(eq(5L), any())).thenReturn(availabilityResponse);
 
@@ -268,7 +274,7 @@ class BookingControllerIntegrationTest {
                 .autoSelect(true)
                 .build();
 
-        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any()))
+        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any(), eq(1)))
                 .thenReturn(Collections.emptyList());
 
         // When/Then
@@ -413,6 +419,60 @@ class BookingControllerIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void scrollUserBookings_ShouldReturnNewestFirstAcrossPages() throws Exception {
+        // Given - pairs of bookings share a creation time, so pages must break ties on id
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            bookings.add(bookingRepository.save(Booking.builder()
+                    .user(testUser)
+                    .roomId(1L)
+                    .hotelId(1L)
+                    .startDate(LocalDate.now().plusDays(1))
+                    .endDate(LocalDate.now().plusDays(2))
+                    .requestId(UUID.randomUUID().toString())
+                    .createdAt(createdAt.plusMinutes(i / 2))
+                    .build()));
+        }
+        List<Long> expected = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getCreatedAt).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .toList();
+
+        // When
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/bookings/scroll")
+                    .header("Authorization", "Bearer " + authToken)
+                    .param("size", "2");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("content").forEach(booking -> seen.add(booking.get("id").asLong()));
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        // Then
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pages).isEqualTo(3);
+    }
+
+    @Test
+    void scrollUserBookings_WithInvalidCursor_ShouldReturn400() throws Exception {
+        mockMvc.perform(get("/bookings/scroll")
+                        .header("Authorization", "Bearer " + authToken)
+                        .param("cursor", "Zm9v"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor"));
+    }
+
     @Test
     void errorResponse_ShouldIncludeTraceId() throws Exception {
         // Given
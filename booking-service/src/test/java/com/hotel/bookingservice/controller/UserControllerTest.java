@@ -0,0 +1,97 @@
+package com.hotel.bookingservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.bookingservice.dto.*;
+import com.hotel.bookingservice.entity.*;
+import com.hotel.bookingservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Not transactional: the streaming endpoint reads users on an async thread, outside the test's transaction.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final List<User> users = new ArrayList<>();
+    private String adminToken;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        users.add(userRepository.save(User.builder()
+                .username("stream_admin")
+                .password(passwordEncoder.encode("password123"))
+                .role(Role.ADMIN)
+                .build()));
+        users.add(userRepository.save(User.builder()
+                .username("stream_user")
+                .password(passwordEncoder.encode("password123"))
+                .role(Role.USER)
+                .build()));
+
+        LoginRequest loginRequest = LoginRequest.builder()
+                .username("stream_admin")
+                .password("password123")
+                .build();
+        MvcResult result = mockMvc.perform(post("/user/auth")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+        adminToken = objectMapper.readValue(result.getResponse().getContentAsString(), AuthResponse.class).getToken();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void streamAllUsers_ShouldWriteOneUserPerLine() throws Exception {
+        MvcResult result = mockMvc.perform(get("/user/stream")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> usernames = new ArrayList<>();
+        for (String line : body.lines().toList()) {
+            usernames.add(objectMapper.readValue(line, UserDto.class).getUsername());
+        }
+        assertThat(usernames).contains("stream_admin", "stream_user").hasSize((int) userRepository.count());
+    }
+}
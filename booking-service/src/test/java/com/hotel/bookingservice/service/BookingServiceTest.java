@@ -196,7 +196,7 @@ class BookingServiceTest {
 
         when(bookingRepository.findByRequestId(any())).thenReturn(Optional.empty());
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any()))
+        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any(), eq(1)))
                 .thenReturn(Arrays.asList(recommendedRoom));
         when(bookingRepository.save(any(Booking.class))).thenAnswer(inv -> {
             Booking b = inv.getArgument(0);
@@ -211,7 +211,7 @@ class BookingServiceTest {
 
         // Then
         assertThat(result).isNotNull();
-        verify(hotelServiceCaller).getRecommendedRooms(eq(1L), any(), any());
+        verify(hotelServiceCaller).getRecommendedRooms(eq(1L), any(), any(), eq(1));
     }
 
     @Test
@@ -226,7 +226,7 @@ class BookingServiceTest {
 
         when(bookingRepository.findByRequestId(any())).thenReturn(Optional.empty());
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any()))
+        when(hotelServiceCaller.getRecommendedRooms(eq(1L), any(), any(), eq(1)))
                 .thenReturn(Collections.emptyList());
 
         // When/Then
@@ -44,16 +44,16 @@ class HotelServiceCallerTest {
                 .timesBooked(0)
                 .build();
 
-        when(hotelServiceClient.getRecommendedRooms(hotelId, startDate, endDate))
+        when(hotelServiceClient.getRecommendedRooms(hotelId, startDate, endDate, 1))
                 .thenReturn(Arrays.asList(room));
 
         // When
-        List<RoomDto> result = hotelServiceCaller.getRecommendedRooms(hotelId, startDate, endDate);
+        List<RoomDto> result = hotelServiceCaller.getRecommendedRooms(hotelId, startDate, endDate, 1);
 
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo(1L);
-        verify(hotelServiceClient).getRecommendedRooms(hotelId, startDate, endDate);
+        verify(hotelServiceClient).getRecommendedRooms(hotelId, startDate, endDate, 1);
     }
 
     @Test
@@ -134,11 +134,11 @@ class HotelServiceCallerTest {
     @Test
     void getRecommendedRooms_WhenClientThrows_ShouldPropagateException() {
         // Given
-        when(hotelServiceClient.getRecommendedRooms(any(), any(), any()))
+        when(hotelServiceClient.getRecommendedRooms(any(), any(), any(), any()))
                 .thenThrow(new RuntimeException("Connection refused"));
 
         // When/Then
-        assertThatThrownBy(() -> hotelServiceCaller.getRecommendedRooms(1L, LocalDate.now(), LocalDate.now().plusDays(1)))
+        assertThatThrownBy(() -> hotelServiceCaller.getRecommendedRooms(1L, LocalDate.now(), LocalDate.now().plusDays(1), 1))
                 .isInstanceOf(RuntimeException.class);
     }
 
@@ -0,0 +1,23 @@
+package com.hotel.hotelservice.availability;
+
+/**
+ * How concurrent confirm-availability calls for the same room are serialized.
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * PESSIMISTIC_WRITE row lock on the room for the duration of the transaction. Safe with several instances.
+     */
+    PESSIMISTIC,
+
+    /**
+     * In-JVM lock stripe per room, taken before a database connection is borrowed. Single instance only.
+     */
+    STRIPED,
+
+    /**
+     * No lock while checking: the lock row is inserted and the room version is bumped with a conditional update.
+     * Losing transactions roll back and are retried with jittered backoff. Safe with several instances.
+     */
+    OPTIMISTIC
+}
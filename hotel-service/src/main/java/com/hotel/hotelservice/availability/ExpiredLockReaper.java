@@ -0,0 +1,140 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomNightRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes unconfirmed room locks older than the configured TTL, i.e. locks left behind by booking sagas that
+ * never confirmed or released them. Locks are walked by id in chunks of batchSize, each chunk deleted in its own
+ * short transaction, so a run never holds a long transaction or row locks on a large range of room_locks.
+ * Matching room_nights rows, in-memory index entries, hotel occupancy counters and cached idempotent responses
+ * are dropped with the lock.
+ * Reaped locks and run duration are published as hotel.rooms.reaper.reaped and hotel.rooms.reaper.duration.
+ */
+@Component
+@Slf4j
+public class ExpiredLockReaper {
+
+    private final RoomLockRepository roomLockRepository;
+    private final RoomNightRepository roomNightRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomConcurrencyControl concurrencyControl;
+    private final IdempotencyCache idempotencyCache;
+    private final HotelOccupancyCounters occupancyCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Duration lockTtl;
+    private final int batchSize;
+    private final Counter reaped;
+    private final Timer duration;
+
+    public ExpiredLockReaper(RoomLockRepository roomLockRepository,
+                             RoomNightRepository roomNightRepository,
+                             RoomAvailabilityIndex availabilityIndex,
+                             RoomConcurrencyControl concurrencyControl,
+                             IdempotencyCache idempotencyCache,
+                             HotelOccupancyCounters occupancyCounters,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${hotel.availability.reaper.enabled:true}") boolean enabled,
+                             @Value("${hotel.availability.reaper.lock-ttl:15m}") Duration lockTtl,
+                             @Value("${hotel.availability.reaper.batch-size:500}") int batchSize,
+                             MeterRegistry meterRegistry) {
+        this.roomLockRepository = roomLockRepository;
+        this.roomNightRepository = roomNightRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.concurrencyControl = concurrencyControl;
+        this.idempotencyCache = idempotencyCache;
+        this.occupancyCounters = occupancyCounters;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.lockTtl = lockTtl;
+        this.batchSize = Math.max(1, batchSize);
+        this.reaped = Counter.builder("hotel.rooms.reaper.reaped")
+                .description("Expired unconfirmed room locks deleted by the reaper")
+                .register(meterRegistry);
+        this.duration = Timer.builder("hotel.rooms.reaper.duration")
+                .description("Duration of a reaper run over expired unconfirmed room locks")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${hotel.availability.reaper.interval:1m}",
+               fixedDelayString = "${hotel.availability.reaper.interval:1m}")
+    public void onSchedule() {
+        if (enabled) {
+            reap();
+        }
+    }
+
+    /**
+     * Deletes every unconfirmed lock created before now minus the TTL.
+     *
+     * @return number of locks deleted
+     */
+    public int reap() {
+        LocalDateTime threshold = LocalDateTime.now().minus(lockTtl);
+        return duration.record(() -> {
+            int total = 0;
+            long afterId = 0;
+            while (true) {
+                List<ExpiredRoomLock> chunk = roomLockRepository.findExpiredUnconfirmedLocks(
+                        threshold, afterId, Limit.of(batchSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                total += transactionTemplate.execute(status -> deleteChunk(chunk));
+                afterId = chunk.get(chunk.size() - 1).id();
+                if (chunk.size() < batchSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("Reaped {} unconfirmed room locks created before {}", total, threshold);
+            }
+            return total;
+        });
+    }
+
+    private int deleteChunk(List<ExpiredRoomLock> chunk) {
+        List<Long> ids = chunk.stream().map(ExpiredRoomLock::id).toList();
+        // Locks confirmed or deleted since the chunk was read are skipped; the rest stay row-locked until commit
+        Set<Long> locked = new HashSet<>(roomLockRepository.lockUnconfirmedIds(ids));
+        if (locked.isEmpty()) {
+            return 0;
+        }
+        int deleted = roomLockRepository.deleteUnconfirmedByIdIn(locked);
+
+        Set<String> requestIds = new HashSet<>();
+        List<RoomLockSpan> spans = new ArrayList<>();
+        for (ExpiredRoomLock lock : chunk) {
+            if (locked.contains(lock.id())) {
+                requestIds.add(lock.requestId());
+                spans.add(new RoomLockSpan(lock.roomId(), lock.startDate(), lock.endDate(), lock.requestId()));
+                availabilityIndex.release(lock.roomId(), lock.requestId());
+                idempotencyCache.invalidate(lock.requestId());
+            }
+        }
+        occupancyCounters.removeLocks(spans);
+        if (concurrencyControl.usesNightStorage()) {
+            roomNightRepository.deleteByRequestIdIn(requestIds);
+        }
+        reaped.increment(deleted);
+        return deleted;
+    }
+}
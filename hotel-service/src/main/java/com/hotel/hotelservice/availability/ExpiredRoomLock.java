@@ -0,0 +1,10 @@
+package com.hotel.hotelservice.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Key and dates of an expired unconfirmed room lock, enough to delete it, drop it from the in-memory availability
+ * structures and uncount it from the hotel occupancy counters without loading the RoomLock entity.
+ */
+public record ExpiredRoomLock(Long id, Long roomId, String requestId, LocalDate startDate, LocalDate endDate) {
+}
@@ -0,0 +1,220 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.entity.HotelDayOccupancy;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.entity.RoomLock;
+import com.hotel.hotelservice.repository.HotelDayOccupancyRepository;
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Per-hotel, per-night counters of locked available rooms in hotel_day_occupancy, which let hotel searches filter
+ * by free rooms with a MAX over the nights of a stay instead of joining room_locks.
+ * Each (hotel, night) count is split over {@link #SLOTS} rows picked by room id, so bookings of different rooms of
+ * one hotel rarely update the same row and do not queue behind each other's transactions. Counters change in the
+ * transaction that adds or removes the locks, one UPDATE per row, always in (hotel, night, slot) order so that
+ * concurrent bookings of rooms sharing a slot wait for each other instead of deadlocking.
+ * The rows a booking will increment are created beforehand by {@link #prepare}, in its own short transaction
+ * before the booking transaction borrows a connection; a row that is still missing, e.g. for admin writes such as
+ * maintenance blocks or moving a room, is inserted by the writing transaction itself. Adding a room changes no counter: free rooms derive from the rooms.
+ * The table is filled from room_locks at startup while it is empty.
+ */
+@Component
+@Slf4j
+public class HotelOccupancyCounters implements SmartInitializingSingleton {
+
+    /**
+     * Counter rows per hotel and night. Fixed, since a lock must be uncounted from the row it was counted in.
+     */
+    public static final int SLOTS = 16;
+
+    private static final Comparator<HotelDayOccupancy.Key> ORDER =
+            Comparator.comparing(HotelDayOccupancy.Key::getHotelId)
+                    .thenComparing(HotelDayOccupancy.Key::getNight)
+                    .thenComparing(HotelDayOccupancy.Key::getSlot);
+
+    private final HotelDayOccupancyRepository occupancyRepository;
+    private final RoomLockRepository roomLockRepository;
+    private final RoomRepository roomRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public HotelOccupancyCounters(HotelDayOccupancyRepository occupancyRepository,
+                                  RoomLockRepository roomLockRepository,
+                                  RoomRepository roomRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.occupancyRepository = occupancyRepository;
+        this.roomLockRepository = roomLockRepository;
+        this.roomRepository = roomRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (occupancyRepository.count() == 0) {
+                backfill();
+            }
+        });
+    }
+
+    /**
+     * Creates the zero rows that locking the given rooms for the stay would increment, so that the booking
+     * transaction only updates existing rows. Call it outside any transaction, before the rooms are locked.
+     */
+    public void prepare(Collection<Long> roomIds, LocalDate startDate, LocalDate endDate) {
+        if (roomIds.isEmpty() || startDate == null || endDate == null || endDate.isBefore(startDate)) {
+            return;
+        }
+        Set<HotelDayOccupancy.Key> keys = new TreeSet<>(ORDER);
+        for (RoomHotel room : roomRepository.findAvailableRoomHotelsByIdIn(roomIds)) {
+            for (LocalDate night = startDate; !night.isAfter(endDate); night = night.plusDays(1)) {
+                keys.add(new HotelDayOccupancy.Key(room.hotelId(), night, slot(room.roomId())));
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> occupancyRepository.insertMissing(keys));
+        } catch (DataIntegrityViolationException e) {
+            // Another transaction inserted some of the rows first; they exist now
+            transactionTemplate.executeWithoutResult(status -> occupancyRepository.insertMissing(keys));
+        }
+    }
+
+    /**
+     * Counts a new lock of an available room of the hotel.
+     */
+    public void add(Long hotelId, Long roomId, LocalDate startDate, LocalDate endDate) {
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        count(deltas, hotelId, roomId, startDate, endDate, 1);
+        apply(deltas);
+    }
+
+    /**
+     * Counts new locks; locks of rooms that are not available are not counted.
+     */
+    public void addLocks(Collection<RoomLock> locks) {
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        for (RoomLock lock : locks) {
+            Room room = lock.getRoom();
+            if (room.getAvailable()) {
+                count(deltas, room.getHotel().getId(), room.getId(), lock.getStartDate(), lock.getEndDate(), 1);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Uncounts a removed lock of an available room of the hotel.
+     */
+    public void remove(Long hotelId, Long roomId, LocalDate startDate, LocalDate endDate) {
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        count(deltas, hotelId, roomId, startDate, endDate, -1);
+        apply(deltas);
+    }
+
+    /**
+     * Moves a room's locks from the counters of one hotel to another's when the room changes hotel or is taken
+     * out of or back into service. A null hotel means the locks are not counted, i.e. the room is unavailable
+     * (or gone) before or after the change.
+     */
+    public void move(Long fromHotelId, Long toHotelId, Collection<RoomLockSpan> spans) {
+        if (Objects.equals(fromHotelId, toHotelId) || spans.isEmpty()) {
+            return;
+        }
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        for (RoomLockSpan span : spans) {
+            if (fromHotelId != null) {
+                count(deltas, fromHotelId, span.roomId(), span.startDate(), span.endDate(), -1);
+            }
+            if (toHotelId != null) {
+                count(deltas, toHotelId, span.roomId(), span.startDate(), span.endDate(), 1);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Uncounts removed locks given by room id; locks of rooms that are not available were never counted.
+     */
+    public void removeLocks(Collection<RoomLockSpan> spans) {
+        if (spans.isEmpty()) {
+            return;
+        }
+        Set<Long> roomIds = spans.stream().map(RoomLockSpan::roomId).collect(Collectors.toSet());
+        Map<Long, Long> hotels = roomRepository.findAvailableRoomHotelsByIdIn(roomIds).stream()
+                .collect(Collectors.toMap(RoomHotel::roomId, RoomHotel::hotelId));
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        for (RoomLockSpan span : spans) {
+            Long hotelId = hotels.get(span.roomId());
+            if (hotelId != null) {
+                count(deltas, hotelId, span.roomId(), span.startDate(), span.endDate(), -1);
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Adds every lock of an available room to the counters; expects an empty table.
+     *
+     * @return number of (hotel, night, slot) counters written
+     */
+    public int backfill() {
+        Map<Long, Long> hotels = roomRepository.findAvailableRoomHotels().stream()
+                .collect(Collectors.toMap(RoomHotel::roomId, RoomHotel::hotelId));
+        Map<HotelDayOccupancy.Key, Integer> deltas = new TreeMap<>(ORDER);
+        for (RoomLockSpan span : roomLockRepository.findAllSpans()) {
+            Long hotelId = hotels.get(span.roomId());
+            if (hotelId != null) {
+                count(deltas, hotelId, span.roomId(), span.startDate(), span.endDate(), 1);
+            }
+        }
+        apply(deltas);
+        log.info("hotel_day_occupancy backfill: {} hotel night slots counted", deltas.size());
+        return deltas.size();
+    }
+
+    static int slot(Long roomId) {
+        return (int) Math.floorMod(roomId, (long) SLOTS);
+    }
+
+    private static void count(Map<HotelDayOccupancy.Key, Integer> deltas, Long hotelId, Long roomId,
+                              LocalDate startDate, LocalDate endDate, int delta) {
+        int slot = slot(roomId);
+        for (LocalDate night = startDate; !night.isAfter(endDate); night = night.plusDays(1)) {
+            deltas.merge(new HotelDayOccupancy.Key(hotelId, night, slot), delta, Integer::sum);
+        }
+    }
+
+    /**
+     * Updates the rows in key order and inserts the ones that did not exist yet, in the current transaction.
+     */
+    private void apply(Map<HotelDayOccupancy.Key, Integer> deltas) {
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int[] updated = occupancyRepository.addLockedRooms(deltas);
+        Map<HotelDayOccupancy.Key, Integer> missing = new TreeMap<>(ORDER);
+        int i = 0;
+        for (Map.Entry<HotelDayOccupancy.Key, Integer> entry : deltas.entrySet()) {
+            if (updated[i++] == 0) {
+                missing.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!missing.isEmpty()) {
+            occupancyRepository.insertAll(missing);
+        }
+    }
+}
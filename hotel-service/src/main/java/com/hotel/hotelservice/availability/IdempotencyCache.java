@@ -0,0 +1,154 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.dto.AvailabilityResponse;
+import com.hotel.hotelservice.support.ExpiringMap;
+import com.hotel.hotelservice.support.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Size-bounded cache of confirm-availability responses by requestId, so Resilience4j and Feign retries of the same
+ * request are answered without a room_locks lookup. Entries live for a fixed TTL in an {@link ExpiringMap}.
+ * Responses are stored once the confirming transaction commits and invalidated once the transaction releasing or
+ * deleting their lock commits. An invalidation leaves a marker for the TTL, so a put from a confirmation whose
+ * after-commit callback ran only after the release had already invalidated the requestId is dropped instead of
+ * caching a lock that no longer exists. Deleting many rooms at once invalidates by room instead: cached responses
+ * of those rooms are dropped and the room ids are remembered for the TTL, so no requestIds have to be loaded.
+ * Lookups, evictions and size are published as hotel.rooms.idempotency.gets, .evictions and .size.
+ */
+@Component
+public class IdempotencyCache {
+
+    private final boolean enabled;
+    private final ExpiringMap<String, Entry> entries;
+    private final ExpiringMap<Long, Boolean> deletedRooms;
+    private final Counter hits;
+    private final Counter misses;
+
+    public IdempotencyCache(@Value("${hotel.availability.idempotency.enabled:true}") boolean enabled,
+                            @Value("${hotel.availability.idempotency.max-size:10000}") int maxSize,
+                            @Value("${hotel.availability.idempotency.ttl:10m}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        Counter expiredEvictions = evictions(meterRegistry, "expired");
+        Counter sizeEvictions = evictions(meterRegistry, "size");
+        this.entries = new ExpiringMap<>(ttl, maxSize, entry -> 1, eviction ->
+                (eviction == ExpiringMap.Eviction.EXPIRED ? expiredEvictions : sizeEvictions).increment());
+        this.deletedRooms = new ExpiringMap<>(ttl, Integer.MAX_VALUE);
+        Gauge.builder("hotel.rooms.idempotency.size", this, IdempotencyCache::size)
+                .description("Confirm-availability responses currently cached")
+                .register(meterRegistry);
+    }
+
+    public Optional<AvailabilityResponse> get(String requestId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            Entry entry = entries.get(requestId);
+            AvailabilityResponse response = entry != null ? entry.response() : null;
+            (response != null ? hits : misses).increment();
+            return Optional.ofNullable(response);
+        }
+    }
+
+    /**
+     * Caches a confirm-availability response once the surrounding transaction has committed, unless the requestId
+     * has been invalidated in the meantime.
+     */
+    public void put(AvailabilityResponse response) {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> store(response.getRequestId(), response));
+    }
+
+    /**
+     * Drops the response of a released or deleted lock once the surrounding transaction has committed.
+     */
+    public void invalidate(String requestId) {
+        invalidateAll(List.of(requestId));
+    }
+
+    /**
+     * Drops the responses of all locks removed together, e.g. with their rooms, in one step after commit.
+     */
+    public void invalidateAll(Collection<String> requestIds) {
+        if (!enabled || requestIds.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> requestIds.forEach(requestId -> store(requestId, null)));
+    }
+
+    /**
+     * Drops the responses of all locks of deleted rooms, e.g. all rooms of a deleted hotel, once the surrounding
+     * transaction has committed. Responses for these rooms put afterwards are dropped for the TTL.
+     */
+    public void invalidateRooms(Collection<Long> roomIds) {
+        if (!enabled || roomIds.isEmpty()) {
+            return;
+        }
+        Set<Long> deleted = Set.copyOf(roomIds);
+        TransactionHooks.afterCommit(() -> {
+            synchronized (entries) {
+                deleted.forEach(roomId -> deletedRooms.put(roomId, true));
+                entries.removeIf((requestId, entry) -> entry.response() != null
+                        && deleted.contains(entry.response().getRoomId()));
+            }
+        });
+    }
+
+    /**
+     * Stores a response, or with a null response the marker of an invalidated requestId; a response is not stored
+     * over a marker or for a deleted room.
+     */
+    private void store(String requestId, AvailabilityResponse response) {
+        synchronized (entries) {
+            if (response != null) {
+                Entry previous = entries.get(requestId);
+                if (previous != null && previous.response() == null
+                        || deletedRooms.get(response.getRoomId()) != null) {
+                    return;
+                }
+            }
+            entries.put(requestId, new Entry(response));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("hotel.rooms.idempotency.gets")
+                .description("Idempotency cache lookups by confirm-availability requestId")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("hotel.rooms.idempotency.evictions")
+                .description("Responses evicted from the idempotency cache")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    /**
+     * A cached response, or with a null response the marker of an invalidated requestId.
+     */
+    private record Entry(AvailabilityResponse response) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.hotel.hotelservice.availability;
+
+/**
+ * How room locks are stored for conflict detection.
+ */
+public enum LockStorage {
+
+    /**
+     * Date ranges in room_locks, conflicts found by a range-overlap check under the configured concurrency mode.
+     */
+    RANGES,
+
+    /**
+     * Additionally one room_nights row per locked night with a (room_id, night) primary key:
+     * a conflicting booking fails on its batched insert, no row lock or overlap query is needed.
+     */
+    NIGHTS
+}
@@ -0,0 +1,88 @@
+package com.hotel.hotelservice.availability;
+
+/**
+ * Day-occupancy bitmap of a single room over a fixed window of epoch days: bit i is set when day baseDay + i is locked.
+ * Range operations work a 64-day word at a time. Days outside the window are ignored by writes and read as free.
+ * Not thread-safe - callers synchronize on the owning room.
+ */
+public final class OccupancyBitmap {
+
+    private final long baseDay;
+    private final long[] words;
+
+    public OccupancyBitmap(long baseDay, int days) {
+        this.baseDay = baseDay;
+        this.words = new long[(days + 63) >>> 6];
+    }
+
+    public long baseDay() {
+        return baseDay;
+    }
+
+    /**
+     * First epoch day past the end of the window.
+     */
+    public long endDay() {
+        return baseDay + ((long) words.length << 6);
+    }
+
+    public void set(long fromDay, long toDay) {
+        apply(fromDay, toDay, true);
+    }
+
+    public void clear(long fromDay, long toDay) {
+        apply(fromDay, toDay, false);
+    }
+
+    /**
+     * True if any day in the inclusive range [fromDay, toDay] is occupied.
+     */
+    public boolean anySet(long fromDay, long toDay) {
+        long from = Math.max(fromDay, baseDay);
+        long to = Math.min(toDay, endDay() - 1);
+        if (from > to) {
+            return false;
+        }
+        int fromBit = (int) (from - baseDay);
+        int toBit = (int) (to - baseDay);
+        int fromWord = fromBit >>> 6;
+        int toWord = toBit >>> 6;
+        long firstMask = -1L << fromBit;
+        long lastMask = -1L >>> (63 - (toBit & 63));
+
+        if (fromWord == toWord) {
+            return (words[fromWord] & firstMask & lastMask) != 0;
+        }
+        if ((words[fromWord] & firstMask) != 0) {
+            return true;
+        }
+        for (int w = fromWord + 1; w < toWord; w++) {
+            if (words[w] != 0) {
+                return true;
+            }
+        }
+        return (words[toWord] & lastMask) != 0;
+    }
+
+    private void apply(long fromDay, long toDay, boolean occupied) {
+        long from = Math.max(fromDay, baseDay);
+        long to = Math.min(toDay, endDay() - 1);
+        if (from > to) {
+            return;
+        }
+        int fromBit = (int) (from - baseDay);
+        int toBit = (int) (to - baseDay);
+        int fromWord = fromBit >>> 6;
+        int toWord = toBit >>> 6;
+        for (int w = fromWord; w <= toWord; w++) {
+            long mask = -1L;
+            if (w == fromWord) {
+                mask &= -1L << fromBit;
+            }
+            if (w == toWord) {
+                mask &= -1L >>> (63 - (toBit & 63));
+            }
+            words[w] = occupied ? words[w] | mask : words[w] & ~mask;
+        }
+    }
+}
@@ -0,0 +1,410 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.support.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory per-room index of locked date ranges, mirroring the room_locks table.
+ * Rejects known overlaps in confirmAvailability without a query; only in STRIPED mode, which assumes a single
+ * instance, does it replace the room_locks overlap query, see {@link RoomConcurrencyControl#trustsAvailabilityIndex}.
+ * The database stays the source of truth: the index is rebuilt from room_locks on startup and
+ * reservations made inside a transaction are rolled back from the index if that transaction does not commit.
+ * Each room also carries a day-occupancy bitmap over a rolling horizon starting at the current 64-day word,
+ * so date-range searches can test thousands of rooms with a few word-wide AND operations per room.
+ */
+@Component
+@Slf4j
+public class RoomAvailabilityIndex {
+
+    private final RoomLockRepository roomLockRepository;
+    private final boolean enabled;
+    private final int horizonDays;
+    // Writers hold the read lock; rebuild takes the write lock only to start its journal and to swap maps
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private final Set<Reservation> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile ConcurrentMap<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+    private volatile Queue<Consumer<ConcurrentMap<Long, RoomIntervals>>> journal;
+    private volatile boolean ready;
+
+    public RoomAvailabilityIndex(RoomLockRepository roomLockRepository,
+                                 @Value("${hotel.availability.index.enabled:true}") boolean enabled,
+                                 @Value("${hotel.availability.calendar.horizon-days:365}") int horizonDays) {
+        this.roomLockRepository = roomLockRepository;
+        this.enabled = enabled;
+        // One extra word so the horizon is always fully covered after aligning the window start down
+        this.horizonDays = horizonDays + 64;
+    }
+
+    /**
+     * True once the index has been loaded from the database and mirrors this instance's locks.
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public boolean hasOverlap(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals != null && intervals.overlaps(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * True if the occupancy calendar is loaded and covers the whole date range, i.e. {@link #isFree} can be used
+     * instead of querying room_locks.
+     */
+    public boolean coversRange(LocalDate startDate, LocalDate endDate) {
+        long base = calendarBase();
+        return isReady() && startDate.toEpochDay() >= base && endDate.toEpochDay() < base + horizonDays;
+    }
+
+    /**
+     * Calendar lookup for date-range searches. Only meaningful when {@link #coversRange} holds.
+     */
+    public boolean isFree(Long roomId, LocalDate startDate, LocalDate endDate) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals == null
+                || !intervals.occupied(calendarBase(), horizonDays, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Sets bit {@code i} of {@code days} for every day {@code startDate + i} up to {@code endDate} that is covered
+     * by one of the room's ranges. Reads the ranges, not the calendar, so any window can be asked for.
+     */
+    public void markOccupied(Long roomId, LocalDate startDate, LocalDate endDate, BitSet days) {
+        RoomIntervals intervals = rooms.get(roomId);
+        if (intervals != null) {
+            intervals.mark(startDate.toEpochDay(), endDate.toEpochDay(), days);
+        }
+    }
+
+    /**
+     * Atomically checks for an overlapping range and records the new one.
+     * Must be called inside the transaction that persists the matching RoomLock: the reservation is
+     * dropped again if that transaction rolls back.
+     *
+     * @return false if the range overlaps an existing lock of the room
+     */
+    public boolean tryReserve(Long roomId, String requestId, LocalDate startDate, LocalDate endDate) {
+        if (!enabled) {
+            return true;
+        }
+        Span span = new Span(startDate.toEpochDay(), endDate.toEpochDay(), requestId);
+        Reservation reservation = new Reservation(roomId, span);
+        swapLock.readLock().lock();
+        try {
+            if (!rooms.computeIfAbsent(roomId, id -> new RoomIntervals()).tryAdd(span)) {
+                return false;
+            }
+            record(reservation::addTo);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // Until it completes, a rebuild may read room_locks without this reservation
+                inFlight.add(reservation);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+        TransactionHooks.afterCompletion(committed -> {
+            swapLock.readLock().lock();
+            try {
+                if (!committed) {
+                    Consumer<ConcurrentMap<Long, RoomIntervals>> undo = map -> removeSpan(map, roomId, requestId);
+                    undo.accept(rooms);
+                    record(undo);
+                }
+                inFlight.remove(reservation);
+            } finally {
+                swapLock.readLock().unlock();
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Removes a released lock once the surrounding transaction has committed.
+     */
+    public void release(Long roomId, String requestId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> mutate(map -> removeSpan(map, roomId, requestId)));
+    }
+
+    /**
+     * Replaces a range by sub-ranges of it, e.g. what is left of a maintenance block after part of it was
+     * unblocked, once the surrounding transaction has committed. Until then the whole range stays occupied.
+     */
+    public void replace(Long roomId, String requestId, Collection<RoomLockSpan> remainders) {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> mutate(map -> {
+            RoomIntervals intervals = map.computeIfAbsent(roomId, id -> new RoomIntervals());
+            intervals.remove(requestId);
+            remainders.forEach(span -> intervals.add(new Span(span.startDate().toEpochDay(),
+                    span.endDate().toEpochDay(), span.requestId())));
+        }));
+    }
+
+    /**
+     * Drops every range of a deleted room once the surrounding transaction has committed.
+     */
+    public void removeRoom(Long roomId) {
+        removeRooms(List.of(roomId));
+    }
+
+    /**
+     * Drops every range of several deleted rooms, e.g. all rooms of a deleted hotel, once the surrounding
+     * transaction has committed.
+     */
+    public void removeRooms(Collection<Long> roomIds) {
+        if (!enabled || roomIds.isEmpty()) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> mutate(map -> roomIds.forEach(map::remove)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the index from room_locks and reports how far the in-memory state had drifted from the database.
+     * The new state is built aside and swapped in atomically; changes made while room_locks is read, plus
+     * reservations still in flight when the rebuild started, are journaled and replayed onto it first, so the
+     * index never misses a lock. Overlap checks fall back to the database while the rebuild is running.
+     */
+    public synchronized RebuildReport rebuild() {
+        List<Reservation> pending;
+        swapLock.writeLock().lock();
+        try {
+            ready = false;
+            journal = new ConcurrentLinkedQueue<>();
+            pending = List.copyOf(inFlight);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        ConcurrentMap<Long, RoomIntervals> fresh = new ConcurrentHashMap<>();
+        try {
+            List<RoomLockSpan> spans = roomLockRepository.findAllSpans();
+            int overlapping = 0;
+            for (RoomLockSpan lockSpan : spans) {
+                Span span = new Span(lockSpan.startDate().toEpochDay(), lockSpan.endDate().toEpochDay(),
+                        lockSpan.requestId());
+                RoomIntervals intervals = fresh.computeIfAbsent(lockSpan.roomId(), id -> new RoomIntervals());
+                if (intervals.overlaps(span.start(), span.end())) {
+                    overlapping++;
+                    log.warn("room_locks contains overlapping ranges for room {} (requestId {})",
+                            lockSpan.roomId(), lockSpan.requestId());
+                }
+                intervals.add(span);
+            }
+
+            RebuildReport report = swap(fresh, pending, spans.size(), overlapping);
+            if (report.missing() > 0 || report.stale() > 0 || overlapping > 0) {
+                log.warn("Availability index was out of sync with room_locks: {}", report);
+            } else {
+                log.info("Availability index rebuilt: {}", report);
+            }
+            return report;
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                journal = null;
+                ready = true;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private RebuildReport swap(ConcurrentMap<Long, RoomIntervals> fresh, List<Reservation> pending,
+                               int spans, int overlapping) {
+        swapLock.writeLock().lock();
+        try {
+            pending.forEach(reservation -> reservation.addTo(fresh));
+            journal.forEach(change -> change.accept(fresh));
+
+            Set<String> previous = requestIds(rooms);
+            boolean populated = !previous.isEmpty();
+            int missing = 0;
+            for (String requestId : requestIds(fresh)) {
+                if (!previous.remove(requestId)) {
+                    missing++;
+                }
+            }
+            rooms = fresh;
+            return new RebuildReport(fresh.size(), spans, populated ? missing : 0, previous.size(), overlapping);
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a committed change to the live map and journals it for a rebuild in progress.
+     */
+    private void mutate(Consumer<ConcurrentMap<Long, RoomIntervals>> change) {
+        swapLock.readLock().lock();
+        try {
+            change.accept(rooms);
+            record(change);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void record(Consumer<ConcurrentMap<Long, RoomIntervals>> change) {
+        Queue<Consumer<ConcurrentMap<Long, RoomIntervals>>> changes = journal;
+        if (changes != null) {
+            changes.add(change);
+        }
+    }
+
+    private static void removeSpan(ConcurrentMap<Long, RoomIntervals> map, Long roomId, String requestId) {
+        RoomIntervals intervals = map.get(roomId);
+        if (intervals != null) {
+            intervals.remove(requestId);
+        }
+    }
+
+    private static Set<String> requestIds(ConcurrentMap<Long, RoomIntervals> map) {
+        Set<String> requestIds = new HashSet<>();
+        map.values().forEach(intervals -> requestIds.addAll(intervals.requestIds()));
+        return requestIds;
+    }
+
+    /**
+     * Calendar windows start at the 64-day word containing today; rooms re-derive their bitmap from their
+     * ranges the first time they are read after the window moves.
+     */
+    private static long calendarBase() {
+        return LocalDate.now().toEpochDay() & ~63L;
+    }
+
+    /**
+     * Result of a rebuild: missing are ranges found in the database but not in memory,
+     * stale are ranges that were in memory but no longer exist in the database.
+     * Missing ranges are only counted when the index was already populated.
+     */
+    public record RebuildReport(int rooms, int spans, int missing, int stale, int overlapping) {
+    }
+
+    record Span(long start, long end, String requestId) {
+    }
+
+    record Reservation(Long roomId, Span span) {
+
+        void addTo(ConcurrentMap<Long, RoomIntervals> map) {
+            map.computeIfAbsent(roomId, id -> new RoomIntervals()).add(span);
+        }
+    }
+
+    /**
+     * Ranges of a single room ordered by start day. Overlap checks only need to scan ranges starting
+     * within maxLength days before the probed range, so they cost O(log n) for non-overlapping bookings.
+     * The occupancy bitmap is derived from the same ranges and built lazily on the first calendar read.
+     */
+    static final class RoomIntervals {
+
+        private static final Comparator<Span> ORDER = Comparator.comparingLong(Span::start)
+                .thenComparingLong(Span::end)
+                .thenComparing(Span::requestId);
+
+        private final NavigableSet<Span> byStart = new TreeSet<>(ORDER);
+        private final Map<String, Span> byRequestId = new HashMap<>();
+        private long maxLength;
+        private OccupancyBitmap occupancy;
+
+        synchronized boolean occupied(long baseDay, int days, long start, long end) {
+            if (occupancy == null || occupancy.baseDay() != baseDay) {
+                occupancy = new OccupancyBitmap(baseDay, days);
+                byStart.forEach(span -> occupancy.set(span.start(), span.end()));
+            }
+            return occupancy.anySet(start, end);
+        }
+
+        synchronized void mark(long start, long end, BitSet days) {
+            for (Span span : candidates(start, end)) {
+                if (span.end() >= start) {
+                    days.set((int) (Math.max(span.start(), start) - start), (int) (Math.min(span.end(), end) - start + 1));
+                }
+            }
+        }
+
+        synchronized boolean overlaps(long start, long end) {
+            for (Span span : candidates(start, end)) {
+                if (span.end() >= start) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized boolean tryAdd(Span span) {
+            if (byRequestId.containsKey(span.requestId())) {
+                return true;
+            }
+            if (overlaps(span.start(), span.end())) {
+                return false;
+            }
+            add(span);
+            return true;
+        }
+
+        synchronized void add(Span span) {
+            remove(span.requestId());
+            byRequestId.put(span.requestId(), span);
+            byStart.add(span);
+            maxLength = Math.max(maxLength, span.end() - span.start());
+            if (occupancy != null) {
+                occupancy.set(span.start(), span.end());
+            }
+        }
+
+        synchronized void remove(String requestId) {
+            Span span = byRequestId.remove(requestId);
+            if (span == null) {
+                return;
+            }
+            byStart.remove(span);
+            if (occupancy != null) {
+                occupancy.clear(span.start(), span.end());
+                // Restore days still covered by other ranges (only possible with overlapping data)
+                for (Span other : candidates(span.start(), span.end())) {
+                    if (other.end() >= span.start()) {
+                        occupancy.set(other.start(), other.end());
+                    }
+                }
+            }
+        }
+
+        /**
+         * Ranges that may overlap [start, end]: those starting at most maxLength days before it.
+         */
+        private NavigableSet<Span> candidates(long start, long end) {
+            Span from = new Span(start - maxLength, Long.MIN_VALUE, "");
+            Span to = new Span(end, Long.MAX_VALUE, "");
+            return byStart.subSet(from, true, to, true);
+        }
+
+        synchronized Set<String> requestIds() {
+            return new HashSet<>(byRequestId.keySet());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.exception.RoomNotAvailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds the configured {@link ConcurrencyMode} and {@link LockStorage} and runs confirm-availability work accordingly.
+ * In STRIPED mode rooms are mapped onto a fixed power-of-two number of lock stripes by id, so a burst on one
+ * popular room queues threads in the JVM instead of parking JDBC connections on the same database row.
+ * Wait time per stripe is published as the hotel.rooms.stripe.wait timer.
+ * In OPTIMISTIC mode transactions that lost the room version race are retried with jittered exponential backoff.
+ */
+@Component
+@Slf4j
+public class RoomConcurrencyControl {
+
+    private final ConcurrencyMode mode;
+    private final LockStorage storage;
+    private final Duration lockTimeout;
+    private final ReentrantLock[] stripes;
+    private final Timer[] waitTimers;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Counter optimisticRetries;
+
+    public RoomConcurrencyControl(@Value("${hotel.availability.concurrency.mode:PESSIMISTIC}") ConcurrencyMode mode,
+                                  @Value("${hotel.availability.storage:RANGES}") LockStorage storage,
+                                  @Value("${hotel.availability.concurrency.stripes:64}") int stripeCount,
+                                  @Value("${hotel.availability.concurrency.lock-timeout:10s}") Duration lockTimeout,
+                                  @Value("${hotel.availability.concurrency.optimistic.max-attempts:5}") int maxAttempts,
+                                  @Value("${hotel.availability.concurrency.optimistic.backoff:20ms}") Duration retryBackoff,
+                                  MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.storage = storage;
+        this.lockTimeout = lockTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.optimisticRetries = Counter.builder("hotel.rooms.optimistic.retries")
+                .description("Confirm-availability attempts retried after losing the room version race")
+                .register(meterRegistry);
+        int size = mode != ConcurrencyMode.STRIPED ? 0
+                : stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        this.waitTimers = new Timer[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+            waitTimers[i] = Timer.builder("hotel.rooms.stripe.wait")
+                    .description("Time spent waiting for a room lock stripe")
+                    .tag("stripe", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        log.info("Room concurrency mode: {}{}, lock storage: {}", mode,
+                size > 0 ? " (" + size + " stripes)" : "", storage);
+    }
+
+    public ConcurrencyMode mode() {
+        return mode;
+    }
+
+    public LockStorage storage() {
+        return storage;
+    }
+
+    /**
+     * Whether conflicts are detected by the room_nights primary key rather than a range-overlap check.
+     */
+    public boolean usesNightStorage() {
+        return storage == LockStorage.NIGHTS;
+    }
+
+    /**
+     * Whether confirmations are only serialized inside this JVM (STRIPED), so a single instance is assumed and the
+     * in-memory availability index may answer overlap checks on its own. In the other modes the database check
+     * stays the authority, since another instance's locks never reach this instance's index.
+     */
+    public boolean trustsAvailabilityIndex() {
+        return mode == ConcurrencyMode.STRIPED;
+    }
+
+    /**
+     * Whether the transactional work itself has to take the PESSIMISTIC_WRITE row lock on the room.
+     */
+    public boolean requiresRowLock() {
+        return mode == ConcurrencyMode.PESSIMISTIC && !usesNightStorage();
+    }
+
+    /**
+     * Whether the transactional work has to bump the room version to detect concurrent confirmations.
+     */
+    public boolean requiresVersionBump() {
+        return mode == ConcurrencyMode.OPTIMISTIC && !usesNightStorage();
+    }
+
+    /**
+     * Runs the transactional action for a room under the configured mode: directly (PESSIMISTIC),
+     * while holding the room's stripe (STRIPED) or with retries on version conflicts (OPTIMISTIC).
+     * Must be called outside any transaction so no connection is held while waiting.
+     */
+    public <T> T execute(Long roomId, Supplier<T> action) {
+        return switch (mode) {
+            case PESSIMISTIC -> action.get();
+            case STRIPED -> callWithStripe(roomId, action);
+            case OPTIMISTIC -> callWithRetries(roomId, action);
+        };
+    }
+
+    /**
+     * {@link #execute(Long, Supplier)} for an action that locks several rooms at once. In STRIPED mode the rooms'
+     * stripes are taken in ascending order, so two such actions with overlapping rooms cannot deadlock.
+     */
+    public <T> T execute(Collection<Long> roomIds, Supplier<T> action) {
+        Long first = roomIds.stream().min(Long::compare).orElseThrow();
+        return switch (mode) {
+            case PESSIMISTIC -> action.get();
+            case STRIPED -> callWithStripes(roomIds, action);
+            case OPTIMISTIC -> callWithRetries(first, action);
+        };
+    }
+
+    private <T> T callWithRetries(Long roomId, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.warn("Giving up on room {} after {} optimistic attempts", roomId, attempt);
+                    throw new RoomNotAvailableException("Room " + roomId + " is busy, please retry");
+                }
+                optimisticRetries.increment();
+                log.debug("Version conflict on room {} (attempt {}), retrying", roomId, attempt);
+                backoff(roomId, attempt);
+            }
+        }
+    }
+
+    /**
+     * Full jitter: sleep a random time up to backoff * 2^(attempt - 1).
+     */
+    private void backoff(Long roomId, int attempt) {
+        long ceiling = retryBackoff.toMillis() << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomNotAvailableException("Interrupted while retrying room " + roomId);
+        }
+    }
+
+    private <T> T callWithStripe(Long roomId, Supplier<T> action) {
+        int stripe = stripeOf(roomId);
+        ReentrantLock lock = acquire(stripe, roomId);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T callWithStripes(Collection<Long> roomIds, Supplier<T> action) {
+        SortedMap<Integer, Long> stripeRooms = new TreeMap<>();
+        roomIds.forEach(roomId -> stripeRooms.putIfAbsent(stripeOf(roomId), roomId));
+        Deque<ReentrantLock> held = new ArrayDeque<>();
+        try {
+            stripeRooms.forEach((stripe, roomId) -> held.push(acquire(stripe, roomId)));
+            return action.get();
+        } finally {
+            held.forEach(ReentrantLock::unlock);
+        }
+    }
+
+    private ReentrantLock acquire(int stripe, Long roomId) {
+        ReentrantLock lock = stripes[stripe];
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = lock.tryLock(lockTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RoomNotAvailableException("Interrupted while waiting for room " + roomId);
+        } finally {
+            waitTimers[stripe].record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            log.warn("Timed out waiting {} for lock stripe {} of room {}", lockTimeout, stripe, roomId);
+            throw new RoomNotAvailableException("Room " + roomId + " is busy, please retry");
+        }
+        return lock;
+    }
+
+    private int stripeOf(Long roomId) {
+        int h = Long.hashCode(roomId) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+}
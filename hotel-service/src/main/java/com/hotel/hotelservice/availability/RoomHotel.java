@@ -0,0 +1,7 @@
+package com.hotel.hotelservice.availability;
+
+/**
+ * Hotel of a room, read without loading the Room entity.
+ */
+public record RoomHotel(Long roomId, Long hotelId) {
+}
@@ -0,0 +1,10 @@
+package com.hotel.hotelservice.availability;
+
+import java.time.LocalDate;
+
+/**
+ * Lightweight projection of a room lock date range, used to (re)build the in-memory availability structures
+ * without loading RoomLock entities.
+ */
+public record RoomLockSpan(Long roomId, LocalDate startDate, LocalDate endDate, String requestId) {
+}
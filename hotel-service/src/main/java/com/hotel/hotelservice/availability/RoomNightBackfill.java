@@ -0,0 +1,89 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.entity.RoomNight;
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomNightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Migration to the NIGHTS lock storage model: expands every room_locks range that has no room_nights rows yet
+ * into one row per night and removes nights whose lock no longer exists. Nights already taken, by another lock of
+ * this run or by room_nights rows left from an earlier one, are skipped with a warning instead of failing startup.
+ * Runs once at startup, before the web server accepts requests, and only when NIGHTS storage is configured,
+ * so switching an existing database from RANGES to NIGHTS only needs a restart.
+ */
+@Component
+@Slf4j
+public class RoomNightBackfill implements SmartInitializingSingleton {
+
+    private final RoomLockRepository roomLockRepository;
+    private final RoomNightRepository roomNightRepository;
+    private final RoomConcurrencyControl concurrencyControl;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public RoomNightBackfill(RoomLockRepository roomLockRepository,
+                             RoomNightRepository roomNightRepository,
+                             RoomConcurrencyControl concurrencyControl,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${hotel.availability.nights.backfill-batch-size:500}") int batchSize) {
+        this.roomLockRepository = roomLockRepository;
+        this.roomNightRepository = roomNightRepository;
+        this.concurrencyControl = concurrencyControl;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (concurrencyControl.usesNightStorage()) {
+            transactionTemplate.executeWithoutResult(status -> backfill());
+        }
+    }
+
+    /**
+     * @return number of room_nights rows inserted
+     */
+    public int backfill() {
+        Set<String> expanded = new HashSet<>(roomNightRepository.findDistinctRequestIds());
+        Set<String> live = new HashSet<>();
+        Set<RoomNight.Key> seen = new HashSet<>();
+        List<Object[]> rows = new ArrayList<>();
+
+        for (RoomLockSpan span : roomLockRepository.findAllSpans()) {
+            live.add(span.requestId());
+            if (expanded.contains(span.requestId())) {
+                continue;
+            }
+            for (LocalDate night = span.startDate(); !night.isAfter(span.endDate()); night = night.plusDays(1)) {
+                if (seen.add(new RoomNight.Key(span.roomId(), night))) {
+                    rows.add(new Object[]{span.roomId(), Date.valueOf(night), span.requestId()});
+                } else {
+                    log.warn("Skipping night {} of room {} for requestId {}: already covered by another lock",
+                            night, span.roomId(), span.requestId());
+                }
+            }
+        }
+
+        expanded.removeAll(live);
+        if (!expanded.isEmpty()) {
+            roomNightRepository.deleteByRequestIdIn(expanded);
+        }
+        int inserted = roomNightRepository.insertMissing(rows, batchSize);
+        if (inserted < rows.size()) {
+            log.warn("Skipped {} nights already taken in room_nights by another lock", rows.size() - inserted);
+        }
+
+        log.info("room_nights backfill: {} nights inserted, {} orphaned locks removed", inserted, expanded.size());
+        return inserted;
+    }
+}
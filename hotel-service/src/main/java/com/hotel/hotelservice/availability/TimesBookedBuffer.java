@@ -0,0 +1,150 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.repository.RoomRepository;
+import com.hotel.hotelservice.support.TransactionHooks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer for rooms.times_booked. Confirmed and released bookings add per-room deltas to
+ * LongAdders once their transaction commits, and the deltas are flushed periodically as one batched UPDATE,
+ * so booking confirmation no longer writes the hot room row that confirm-availability locks.
+ * Recommendation reads over-fetch by {@link #pendingIncreases} rows and add {@link #pending} to the stored value
+ * to keep their ordering current.
+ * Deltas are additive, so several hotel-service instances can each buffer their own; a crash loses at most
+ * one flush interval of counter updates. A flush writes the counters and the hotels' rooms version in one
+ * transaction, so a failed flush leaves nothing applied and can safely be retried with the same deltas.
+ * With write-behind disabled each delta is applied immediately.
+ * Rooms are evicted from the catalog cache once their new value is written.
+ * Rooms with unflushed deltas are published as the hotel.rooms.times-booked.pending gauge.
+ */
+@Component
+@Slf4j
+public class TimesBookedBuffer {
+
+    private final RoomRepository roomRepository;
+    private final CatalogCache catalogCache;
+    private final boolean writeBehind;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentMap<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+
+    public TimesBookedBuffer(RoomRepository roomRepository,
+                             CatalogCache catalogCache,
+                             @Value("${hotel.rooms.times-booked.write-behind.enabled:true}") boolean writeBehind,
+                             MeterRegistry meterRegistry,
+                             PlatformTransactionManager transactionManager) {
+        this.roomRepository = roomRepository;
+        this.catalogCache = catalogCache;
+        this.writeBehind = writeBehind;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("hotel.rooms.times-booked.pending", this, TimesBookedBuffer::pendingRooms)
+                .description("Rooms with times_booked changes not yet flushed to the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a times_booked change for a room. Inside a transaction the delta only counts once it commits.
+     */
+    public void record(Long roomId, long delta) {
+        if (!writeBehind) {
+            roomRepository.addTimesBooked(Map.of(roomId, delta));
+            catalogCache.evictRooms(Set.of(roomId));
+            return;
+        }
+        TransactionHooks.afterCommit(() -> deltas.computeIfAbsent(roomId, id -> new LongAdder()).add(delta));
+    }
+
+    /**
+     * Committed change not yet written to rooms.times_booked.
+     */
+    public long pending(Long roomId) {
+        LongAdder adder = deltas.get(roomId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Rooms with a non-zero unflushed delta. Adders of idle rooms are kept (one per booked room) rather than
+     * removed, since an add racing with the removal would be lost.
+     */
+    public long pendingRooms() {
+        return deltas.values().stream().filter(adder -> adder.sum() != 0).count();
+    }
+
+    /**
+     * Rooms whose unflushed delta is positive, i.e. that rank lower once it is written.
+     */
+    public long pendingIncreases() {
+        return deltas.values().stream().filter(adder -> adder.sum() > 0).count();
+    }
+
+    /**
+     * Drops the buffered change of a deleted room once the surrounding transaction has committed.
+     */
+    public void forget(Long roomId) {
+        forget(Set.of(roomId));
+    }
+
+    /**
+     * Drops the buffered changes of several deleted rooms once the surrounding transaction has committed, so a
+     * rolled-back delete keeps them.
+     */
+    public void forget(Collection<Long> roomIds) {
+        TransactionHooks.afterCommit(() -> roomIds.forEach(deltas::remove));
+    }
+
+    @Scheduled(initialDelayString = "${hotel.rooms.times-booked.write-behind.flush-interval:5s}",
+               fixedDelayString = "${hotel.rooms.times-booked.write-behind.flush-interval:5s}")
+    public void onSchedule() {
+        flush();
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        flush();
+    }
+
+    /**
+     * Writes all buffered deltas in one batch and transaction. Deltas added while flushing stay buffered for
+     * the next run, and a failed batch is rolled back and put back.
+     *
+     * @return number of rooms updated
+     */
+    public synchronized int flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        deltas.forEach((roomId, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta != 0) {
+                batch.put(roomId, delta);
+            }
+        });
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> roomRepository.addTimesBooked(batch));
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush times_booked for {} rooms, keeping them buffered: {}", batch.size(), e.getMessage());
+            batch.forEach((roomId, delta) -> deltas.computeIfAbsent(roomId, id -> new LongAdder()).add(delta));
+            return 0;
+        }
+        catalogCache.evictRooms(batch.keySet());
+        log.debug("Flushed times_booked deltas for {} rooms", batch.size());
+        return batch.size();
+    }
+}
@@ -0,0 +1,253 @@
+package com.hotel.hotelservice.catalog;
+
+import com.hotel.hotelservice.dto.HotelDto;
+import com.hotel.hotelservice.dto.RoomDto;
+import com.hotel.hotelservice.support.ExpiringMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read-through cache of the catalog reads behind GET /api/hotels/{id}, /api/rooms/{id} and
+ * /api/rooms/hotel/{hotelId}, the last two also being called by Booking Service for every booking.
+ * Entries share one TTL in an {@link ExpiringMap}.
+ * Hotel and room writes evict exactly the entries they change once their transaction commits, and every eviction
+ * bumps a generation so that a value loaded concurrently from the old state is not cached afterwards.
+ * Between the commit and the eviction a hit still returns the old state; {@link #settledSince} tells callers that
+ * pair cached values with freshly read versions whether that window may have been hit.
+ * Reads inside a read-write transaction bypass the cache, so uncommitted state is never cached.
+ * DTOs are mutable, so values are copied on the way in and out.
+ * Lookups by kind, the hit ratio and size are published as hotel.catalog.cache.gets, .hit-ratio and .size.
+ */
+@Component
+public class CatalogCache {
+
+    private final boolean enabled;
+    private final ExpiringMap<Key, Object> entries;
+    private final Map<Kind, Counter> hits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> misses = new EnumMap<>(Kind.class);
+    private long generation;
+    private int pendingEvictions;
+
+    public CatalogCache(@Value("${hotel.catalog.cache.enabled:true}") boolean enabled,
+                        @Value("${hotel.catalog.cache.max-size:10000}") int maxSize,
+                        @Value("${hotel.catalog.cache.ttl:5m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.entries = new ExpiringMap<>(ttl, maxSize);
+        for (Kind kind : Kind.values()) {
+            hits.put(kind, gets(meterRegistry, kind, "hit"));
+            misses.put(kind, gets(meterRegistry, kind, "miss"));
+        }
+        Gauge.builder("hotel.catalog.cache.hit-ratio", this, CatalogCache::hitRatio)
+                .description("Share of catalog lookups answered from the cache")
+                .register(meterRegistry);
+        Gauge.builder("hotel.catalog.cache.size", this, CatalogCache::size)
+                .description("Hotels, rooms and room lists currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hotel with room counters but without its rooms.
+     */
+    public HotelDto hotel(Long hotelId, Supplier<HotelDto> loader) {
+        return get(new Key(Kind.HOTEL, hotelId), loader, CatalogCache::copy);
+    }
+
+    public RoomDto room(Long roomId, Supplier<RoomDto> loader) {
+        return get(new Key(Kind.ROOM, roomId), loader, CatalogCache::copy);
+    }
+
+    public List<RoomDto> hotelRooms(Long hotelId, Supplier<List<RoomDto>> loader) {
+        return get(new Key(Kind.HOTEL_ROOMS, hotelId), loader,
+                rooms -> rooms.stream().map(CatalogCache::copy).toList());
+    }
+
+    /**
+     * Evicts a hotel, its room list and its cached rooms, which carry the hotel name.
+     */
+    public void evictHotel(Long hotelId) {
+        invalidate(() -> {
+            entries.remove(new Key(Kind.HOTEL, hotelId));
+            entries.remove(new Key(Kind.HOTEL_ROOMS, hotelId));
+            entries.removeIf((key, value) -> key.kind() == Kind.ROOM
+                    && Objects.equals(((RoomDto) value).getHotelId(), hotelId));
+        });
+    }
+
+    /**
+     * Evicts a room together with the room counters and room list of its hotel.
+     */
+    public void evictRoom(Long roomId, Long hotelId) {
+        invalidate(() -> {
+            entries.remove(new Key(Kind.ROOM, roomId));
+            entries.remove(new Key(Kind.HOTEL, hotelId));
+            entries.remove(new Key(Kind.HOTEL_ROOMS, hotelId));
+        });
+    }
+
+    /**
+     * Evicts rooms whose times_booked changed, and the room lists containing them. Hotel counters are unaffected.
+     */
+    public void evictRooms(Collection<Long> roomIds) {
+        Set<Long> ids = Set.copyOf(roomIds);
+        invalidate(() -> entries.removeIf((key, value) -> switch (key.kind()) {
+            case ROOM -> ids.contains(key.id());
+            case HOTEL_ROOMS -> ((List<?>) value).stream()
+                    .anyMatch(room -> ids.contains(((RoomDto) room).getId()));
+            case HOTEL -> false;
+        }));
+    }
+
+    public void invalidateAll() {
+        invalidate(entries::clear);
+    }
+
+    /**
+     * Current eviction generation, to be passed to {@link #settledSince} once the cached values have been read.
+     */
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * True if no eviction has run since {@code generation} was read and none is waiting for its transaction to
+     * finish, i.e. values read from the cache in between are not older than anything committed in between.
+     */
+    public boolean settledSince(long generation) {
+        synchronized (entries) {
+            return pendingEvictions == 0 && this.generation == generation;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private <T> T get(Key key, Supplier<T> loader, UnaryOperator<T> copy) {
+        if (!enabled || readWriteTransaction()) {
+            return loader.get();
+        }
+        long loadedAt;
+        synchronized (entries) {
+            @SuppressWarnings("unchecked")
+            T cached = (T) entries.get(key);
+            if (cached != null) {
+                hits.get(key.kind()).increment();
+                return copy.apply(cached);
+            }
+            loadedAt = generation;
+        }
+        misses.get(key.kind()).increment();
+        T value = loader.get();
+        T cached = copy.apply(value);
+        synchronized (entries) {
+            if (generation == loadedAt) {
+                entries.put(key, cached);
+            }
+        }
+        return value;
+    }
+
+    private static boolean readWriteTransaction() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    /**
+     * Runs an eviction once the surrounding transaction has committed. From just before the commit until the
+     * eviction has run the cache is not {@link #settledSince settled}.
+     */
+    private void invalidate(Runnable eviction) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (entries) {
+                generation++;
+                eviction.run();
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private boolean pending;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                synchronized (entries) {
+                    pendingEvictions++;
+                    pending = true;
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (entries) {
+                    if (status == STATUS_COMMITTED) {
+                        generation++;
+                        eviction.run();
+                    }
+                    if (pending) {
+                        pendingEvictions--;
+                    }
+                }
+            }
+        });
+    }
+
+    private double hitRatio() {
+        double hitCount = hits.values().stream().mapToDouble(Counter::count).sum();
+        double total = hitCount + misses.values().stream().mapToDouble(Counter::count).sum();
+        return total > 0 ? hitCount / total : 0;
+    }
+
+    private static HotelDto copy(HotelDto hotel) {
+        return new HotelDto(hotel.getId(), hotel.getName(), hotel.getAddress(),
+                hotel.getRooms() != null ? hotel.getRooms().stream().map(CatalogCache::copy).toList() : null,
+                hotel.getTotalRooms(), hotel.getAvailableRooms());
+    }
+
+    private static RoomDto copy(RoomDto room) {
+        return new RoomDto(room.getId(), room.getHotelId(), room.getHotelName(), room.getNumber(),
+                room.getAvailable(), room.getTimesBooked());
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, Kind kind, String result) {
+        return Counter.builder("hotel.catalog.cache.gets")
+                .description("Catalog cache lookups")
+                .tag("kind", kind.tag)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private enum Kind {
+        HOTEL("hotel"), ROOM("room"), HOTEL_ROOMS("hotel-rooms");
+
+        private final String tag;
+
+        Kind(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record Key(Kind kind, Long id) {
+    }
+}
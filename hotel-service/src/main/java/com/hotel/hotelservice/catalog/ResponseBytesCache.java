@@ -0,0 +1,135 @@
+package com.hotel.hotelservice.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hotel.hotelservice.support.ExpiringMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Already-encoded JSON (and, if enabled, gzip) bodies of catalog responses, keyed by their ETag. The tag contains
+ * the resource and all versions the body depends on, so a write makes the next request miss without any eviction;
+ * superseded bodies are dropped from the head of an {@link ExpiringMap} weighed in bytes once their TTL expires or
+ * the byte budget is exceeded. A hit skips loading, mapping and serialization: the bytes are copied to the response as is.
+ * Lookups and the cached bytes are published as hotel.catalog.response-cache.gets and .bytes.
+ */
+@Component
+public class ResponseBytesCache {
+
+    private final ObjectWriter writer;
+    private final boolean enabled;
+    private final boolean gzip;
+    private final long maxBytes;
+    private final ExpiringMap<String, EncodedResponse> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public ResponseBytesCache(ObjectMapper objectMapper,
+                              @Value("${hotel.catalog.response-cache.enabled:true}") boolean enabled,
+                              @Value("${hotel.catalog.response-cache.gzip:true}") boolean gzip,
+                              @Value("${hotel.catalog.response-cache.max-bytes:64MB}") DataSize maxBytes,
+                              @Value("${hotel.catalog.response-cache.ttl:10m}") Duration ttl,
+                              MeterRegistry meterRegistry) {
+        this.writer = objectMapper.writer();
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.maxBytes = maxBytes.toBytes();
+        this.entries = new ExpiringMap<>(ttl, this.maxBytes, EncodedResponse::size, eviction -> { });
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        Gauge.builder("hotel.catalog.response-cache.bytes", this, ResponseBytesCache::bytes)
+                .description("Encoded response bytes currently cached, gzip copies included")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether encoded responses carry a gzip copy, i.e. whether responses vary by Accept-Encoding.
+     */
+    public boolean gzip() {
+        return gzip && enabled;
+    }
+
+    public Optional<EncodedResponse> get(String eTag) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        synchronized (entries) {
+            EncodedResponse response = entries.get(eTag);
+            if (response != null) {
+                hits.increment();
+                return Optional.of(response);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Serializes {@code body} to JSON, and to gzip if enabled. Does not cache it.
+     */
+    public EncodedResponse encode(Object body) {
+        try {
+            byte[] json = writer.writeValueAsBytes(body);
+            return new EncodedResponse(json, gzip && enabled ? gzip(json) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void put(String eTag, EncodedResponse response) {
+        if (!enabled || response.size() > maxBytes) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(eTag, response);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public long bytes() {
+        synchronized (entries) {
+            return entries.weight();
+        }
+    }
+
+    private static byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("hotel.catalog.response-cache.gets")
+                .description("Encoded response lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * JSON body and its gzip encoding, null if gzip is disabled.
+     */
+    public record EncodedResponse(byte[] json, byte[] gzip) {
+
+        long size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
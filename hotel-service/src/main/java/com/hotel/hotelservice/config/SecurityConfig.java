@@ -36,7 +36,8 @@ public class SecurityConfig {
                 // Public read endpoints for hotels and rooms
                 .requestMatchers(HttpMethod.GET, "/api/hotels/**", "/api/rooms/**").permitAll()
                 // Internal endpoints (from Booking Service)
-                .requestMatchers("/api/rooms/*/confirm-availability", "/api/rooms/*/confirm-booking", "/api/rooms/*/release").permitAll()
+                .requestMatchers("/api/rooms/*/confirm-availability", "/api/rooms/*/confirm-booking", "/api/rooms/*/release",
+                        "/api/rooms/hotel/*/confirm-availability").permitAll()
                 // All other requests require authentication
                 .anyRequest().authenticated()
             )
@@ -0,0 +1,98 @@
+package com.hotel.hotelservice.controller;
+
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.catalog.ResponseBytesCache;
+import com.hotel.hotelservice.catalog.ResponseBytesCache.EncodedResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET whose 200 body comes from the {@link ResponseBytesCache}: the JSON (or gzip) bytes are written
+ * to the response as they are, without loading, mapping or serializing the resource again.
+ * The gzip variant has its own strong ETag ({@code -gz} appended inside the quotes), since a strong validator
+ * identifies one exact representation, and both variants are sent with {@code Vary: Accept-Encoding}.
+ * Bodies served from the {@link CatalogCache} may lag a just-committed write until its eviction runs, so they are
+ * only cached under the tag if the catalog cache was settled for the whole request.
+ */
+final class CachedJsonResponse {
+
+    private static final String GZIP_TAG_SUFFIX = "-gz";
+
+    private CachedJsonResponse() {
+    }
+
+    /**
+     * @param eTag   reads the current ETag, empty for an unknown resource; called again after a miss, and the
+     *               encoded body is only cached if the tag did not move while it was loaded
+     * @param loader loads the body on a miss or for an unknown resource, typically to answer 404
+     */
+    static ResponseEntity<byte[]> of(WebRequest request, ResponseBytesCache cache, CatalogCache catalogCache,
+                                     Supplier<Optional<String>> eTag, Supplier<?> loader) {
+        long generation = catalogCache.generation();
+        Optional<String> tag = eTag.get();
+        if (tag.isEmpty()) {
+            return ok(request, cache.encode(loader.get()), null);
+        }
+        boolean gzip = cache.gzip() && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String variantTag = gzip ? gzipTag(tag.get()) : tag.get();
+        if (request.checkNotModified(variantTag)) {
+            ResponseEntity.HeadersBuilder<?> notModified = ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(variantTag);
+            if (cache.gzip()) {
+                notModified.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+        Optional<EncodedResponse> cached = cache.get(tag.get());
+        if (cached.isPresent()) {
+            return ok(request, cached.get(), tag.get());
+        }
+        EncodedResponse encoded = cache.encode(loader.get());
+        if (eTag.get().equals(tag) && catalogCache.settledSince(generation)) {
+            cache.put(tag.get(), encoded);
+        }
+        return ok(request, encoded, tag.get());
+    }
+
+    private static ResponseEntity<byte[]> ok(WebRequest request, EncodedResponse encoded, String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        boolean gzip = encoded.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (eTag != null) {
+            response.eTag(gzip ? gzipTag(eTag) : eTag);
+        }
+        if (encoded.gzip() == null) {
+            return response.body(encoded.json());
+        }
+        response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(encoded.gzip())
+                : response.body(encoded.json());
+    }
+
+    /**
+     * ETag of the gzip variant: {@code "v"} becomes {@code "v-gz"}.
+     */
+    static String gzipTag(String eTag) {
+        return eTag.endsWith("\"")
+                ? eTag.substring(0, eTag.length() - 1) + GZIP_TAG_SUFFIX + "\""
+                : eTag + GZIP_TAG_SUFFIX;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
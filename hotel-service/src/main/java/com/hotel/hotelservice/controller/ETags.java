@@ -0,0 +1,62 @@
+package com.hotel.hotelservice.controller;
+
+import com.hotel.hotelservice.dto.CatalogVersion;
+import com.hotel.hotelservice.dto.HotelVersion;
+import com.hotel.hotelservice.dto.RoomVersion;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Strong ETags built from entity versions, so conditional GETs are answered with 304 after a single version
+ * lookup, before anything is loaded, mapped or serialized. The version is read before the body: a change committed
+ * in between pairs a newer body with the older tag, which only costs the client one more full response.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String hotel(HotelVersion version, boolean includeRooms) {
+        return tag(includeRooms ? "hotel-with-rooms" : "hotel", version.hotelId(), version.version(),
+                version.roomsVersion());
+    }
+
+    static String hotelRooms(HotelVersion version) {
+        return tag("hotel-rooms", version.hotelId(), version.version(), version.roomsVersion());
+    }
+
+    static String room(RoomVersion version) {
+        return tag("room", version.roomId(), version.version(), version.hotelId(), version.hotelVersion(),
+                version.hotelRoomsVersion());
+    }
+
+    static String catalog(String name, CatalogVersion version) {
+        return tag(name, version.hotels(), version.maxHotelId(), version.versionSum());
+    }
+
+    /**
+     * 304 if the request's If-None-Match matches {@code eTag}, otherwise 200 with the loaded body and the ETag.
+     * Without an ETag (unknown id) the loader runs as usual, typically to answer 404.
+     */
+    static <T> ResponseEntity<T> conditional(WebRequest request, Optional<String> eTag, Supplier<T> loader) {
+        if (eTag.isEmpty()) {
+            return ResponseEntity.ok(loader.get());
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+        }
+        return ResponseEntity.ok().eTag(eTag.get()).body(loader.get());
+    }
+
+    private static String tag(String kind, Object... parts) {
+        StringBuilder tag = new StringBuilder("\"").append(kind);
+        for (Object part : parts) {
+            tag.append('-').append(part);
+        }
+        return tag.append('"').toString();
+    }
+}
@@ -1,21 +1,36 @@
 package com.hotel.hotelservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.catalog.ResponseBytesCache;
 import com.hotel.hotelservice.dto.*;
+import com.hotel.hotelservice.service.CatalogImportService;
 import com.hotel.hotelservice.service.HotelService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/hotels")
@@ -25,11 +40,23 @@ import java.util.List;
 public class HotelController {
 
     private final HotelService hotelService;
+    private final CatalogImportService importService;
+    private final ObjectMapper objectMapper;
+    private final ResponseBytesCache responseCache;
+    private final CatalogCache catalogCache;
 
     @GetMapping
     @Operation(summary = "Get all hotels", description = "Returns a list of all hotels")
-    public ResponseEntity<List<HotelDto>> getAllHotels() {
-        return ResponseEntity.ok(hotelService.getAllHotels());
+    public ResponseEntity<List<HotelDto>> getAllHotels(WebRequest request) {
+        return ETags.conditional(request, Optional.of(ETags.catalog("hotels", hotelService.getCatalogVersion())),
+                hotelService::getAllHotels);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all hotels as newline-delimited JSON",
+               description = "One hotel per line, written while hotels are read from the database")
+    public ResponseEntity<StreamingResponseBody> streamAllHotels() {
+        return NdjsonResponse.of(objectMapper, hotelService::streamAllHotels);
     }
 
     @GetMapping("/page")
@@ -39,18 +66,60 @@ public class HotelController {
         return ResponseEntity.ok(hotelService.getHotels(pageable));
     }
 
+    @GetMapping("/slice")
+    @Operation(summary = "Get hotels with pagination, without counting all hotels",
+               description = "hasNext tells whether another page follows; withTotal=true adds a cached total")
+    public ResponseEntity<Slice<HotelDto>> getHotelsSlice(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(hotelService.getHotelsSlice(pageable, withTotal));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get hotels with keyset pagination",
+               description = "Pass nextCursor of a page as cursor to read the next one")
+    public ResponseEntity<CursorPage<HotelDto>> scrollHotels(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(hotelService.scrollHotels(cursor, size));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search hotels by name or address")
+    @Operation(summary = "Search hotels by name or address",
+               description = "With startDate and endDate only hotels with at least rooms (default 1) rooms free "
+                       + "on every night of the range are returned")
     public ResponseEntity<Page<HotelDto>> searchHotels(
             @RequestParam String query,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "1") int rooms,
             @PageableDefault(size = 20) Pageable pageable) {
+        if (startDate != null || endDate != null) {
+            return ResponseEntity.ok(hotelService.searchHotelsWithFreeRooms(query, startDate, endDate, rooms, pageable));
+        }
         return ResponseEntity.ok(hotelService.searchHotels(query, pageable));
     }
 
+    @GetMapping("/search/slice")
+    @Operation(summary = "Search hotels by name or address, without counting all matches",
+               description = "hasNext tells whether another page follows; withTotal=true adds a cached total")
+    public ResponseEntity<Slice<HotelDto>> searchHotelsSlice(
+            @RequestParam String query,
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ResponseEntity.ok(hotelService.searchHotelsSlice(query, pageable, withTotal));
+    }
+
     @GetMapping("/{id}")
-    @Operation(summary = "Get hotel by ID", description = "Returns a hotel with all its rooms")
-    public ResponseEntity<HotelDto> getHotelById(@PathVariable Long id) {
-        return ResponseEntity.ok(hotelService.getHotelById(id));
+    @Operation(summary = "Get hotel by ID", description = "Returns a hotel with its room counters, and its rooms if includeRooms=true")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = HotelDto.class)))
+    public ResponseEntity<byte[]> getHotelById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeRooms,
+            WebRequest request) {
+        return CachedJsonResponse.of(request, responseCache, catalogCache,
+                () -> hotelService.getHotelVersion(id).map(version -> ETags.hotel(version, includeRooms)),
+                () -> hotelService.getHotelById(id, includeRooms));
     }
 
     @PostMapping
@@ -61,6 +130,24 @@ public class HotelController {
         return ResponseEntity.status(HttpStatus.CREATED).body(hotel);
     }
 
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk import hotels and rooms from CSV",
+               description = "Admin only. Header line with hotel, address, number, available; one room (or hotel) "
+                       + "per line, existing hotels and rooms are skipped")
+    public ResponseEntity<CatalogImportReport> importCsv(InputStream body) {
+        return ResponseEntity.ok(importService.importCsv(body));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Bulk import hotels and rooms from newline-delimited JSON",
+               description = "Admin only. One {hotel, address, number, available} object per line, existing hotels "
+                       + "and rooms are skipped")
+    public ResponseEntity<CatalogImportReport> importNdjson(InputStream body) {
+        return ResponseEntity.ok(importService.importNdjson(body));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Update a hotel", description = "Admin only")
@@ -70,6 +157,14 @@ public class HotelController {
         return ResponseEntity.ok(hotelService.updateHotel(id, request));
     }
 
+    @DeleteMapping("/cache")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Flush the catalog cache", description = "Admin only")
+    public ResponseEntity<Void> flushCatalogCache() {
+        hotelService.flushCatalogCache();
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete a hotel", description = "Admin only")
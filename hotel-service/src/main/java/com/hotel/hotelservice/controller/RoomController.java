@@ -1,20 +1,32 @@
 package com.hotel.hotelservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.catalog.ResponseBytesCache;
 import com.hotel.hotelservice.dto.*;
+import com.hotel.hotelservice.service.AvailabilityConfirmationService;
 import com.hotel.hotelservice.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/rooms")
@@ -24,39 +36,110 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final AvailabilityConfirmationService availabilityConfirmationService;
+    private final ObjectMapper objectMapper;
+    private final ResponseBytesCache responseCache;
+    private final CatalogCache catalogCache;
 
     @GetMapping
     @Operation(summary = "Get all available rooms")
-    public ResponseEntity<List<RoomDto>> getAllRooms() {
-        return ResponseEntity.ok(roomService.getAllRooms());
+    @ApiResponse(responseCode = "200",
+                 content = @Content(array = @ArraySchema(schema = @Schema(implementation = RoomDto.class))))
+    public ResponseEntity<byte[]> getAllRooms(WebRequest request) {
+        return CachedJsonResponse.of(request, responseCache, catalogCache,
+                () -> Optional.of(ETags.catalog("rooms", roomService.getCatalogVersion())),
+                roomService::getAllRooms);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all available rooms as newline-delimited JSON",
+               description = "One room per line, written while rooms are read from the database")
+    public ResponseEntity<StreamingResponseBody> streamAllRooms() {
+        return NdjsonResponse.of(objectMapper, roomService::streamAllRooms);
     }
 
     @GetMapping("/hotel/{hotelId}")
     @Operation(summary = "Get rooms by hotel ID")
-    public ResponseEntity<List<RoomDto>> getRoomsByHotel(@PathVariable Long hotelId) {
-        return ResponseEntity.ok(roomService.getRoomsByHotel(hotelId));
+    @ApiResponse(responseCode = "200",
+                 content = @Content(array = @ArraySchema(schema = @Schema(implementation = RoomDto.class))))
+    public ResponseEntity<byte[]> getRoomsByHotel(@PathVariable Long hotelId, WebRequest request) {
+        return CachedJsonResponse.of(request, responseCache, catalogCache,
+                () -> roomService.getHotelRoomsVersion(hotelId).map(ETags::hotelRooms),
+                () -> roomService.getRoomsByHotel(hotelId));
+    }
+
+    @GetMapping("/hotel/{hotelId}/availability")
+    @Operation(summary = "Get the occupancy of all rooms of a hotel day by day",
+               description = "Each room's occupied field is a base64 bitstring, bit i set if the room is locked on "
+                       + "startDate + i (LSB first within each byte); endDate is inclusive, at most 366 days")
+    public ResponseEntity<AvailabilityMatrixDto> getAvailabilityMatrix(
+            @PathVariable Long hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        return ResponseEntity.ok(roomService.getAvailabilityMatrix(hotelId, startDate, endDate));
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get room by ID")
-    public ResponseEntity<RoomDto> getRoomById(@PathVariable Long id) {
-        return ResponseEntity.ok(roomService.getRoomById(id));
+    public ResponseEntity<RoomDto> getRoomById(@PathVariable Long id, WebRequest request) {
+        return ETags.conditional(request, roomService.getRoomVersion(id).map(ETags::room),
+                () -> roomService.getRoomById(id));
+    }
+
+    @GetMapping("/scroll")
+    @Operation(summary = "Get available rooms in recommendation order with keyset pagination",
+               description = "Pass nextCursor of a page as cursor to read the next one")
+    public ResponseEntity<CursorPage<RoomDto>> scrollRooms(
+            @RequestParam(required = false) Long hotelId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(roomService.scrollAvailableRooms(hotelId, cursor, size));
     }
 
     @GetMapping("/recommend")
-    @Operation(summary = "Get recommended rooms sorted by times_booked (ASC)")
+    @Operation(summary = "Get recommended rooms sorted by times_booked (ASC)",
+               description = "limit returns only the first N rooms of the ranking")
     public ResponseEntity<List<RoomDto>> getRecommendedRooms(
             @RequestParam(required = false) Long hotelId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Integer limit) {
 
         if (startDate != null && endDate != null) {
             if (hotelId != null) {
-                return ResponseEntity.ok(roomService.getRecommendedRoomsForDatesByHotel(hotelId, startDate, endDate));
+                return ResponseEntity.ok(roomService.getRecommendedRoomsForDatesByHotel(hotelId, startDate, endDate, limit));
             }
-            return ResponseEntity.ok(roomService.getRecommendedRoomsForDates(startDate, endDate));
+            return ResponseEntity.ok(roomService.getRecommendedRoomsForDates(startDate, endDate, limit));
+        }
+        if (hotelId != null) {
+            return ResponseEntity.ok(roomService.getRecommendedRoomsByHotel(hotelId, limit));
         }
-        return ResponseEntity.ok(roomService.getRecommendedRooms());
+        return ResponseEntity.ok(roomService.getRecommendedRooms(limit));
+    }
+
+    @GetMapping("/hotel/{hotelId}/group")
+    @Operation(summary = "Find a number of rooms of a hotel that are all free for the same dates",
+               description = "Rooms in recommendation order; 409 if the hotel has fewer free rooms")
+    public ResponseEntity<List<RoomDto>> findGroupRooms(
+            @PathVariable Long hotelId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam int rooms) {
+        return ResponseEntity.ok(roomService.findGroupRooms(hotelId, startDate, endDate, rooms));
+    }
+
+    @GetMapping("/windows")
+    @Operation(summary = "Find stays of a given length within a date range that rooms are free for",
+               description = "A stay locks nights days from its startDate; order is EARLIEST or LEAST_CONTENDED "
+                       + "(most free rooms first), limit returns the first N windows")
+    public ResponseEntity<List<StayWindowDto>> findStayWindows(
+            @RequestParam(required = false) Long hotelId,
+            @RequestParam int nights,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "EARLIEST") StayWindowOrder order,
+            @RequestParam(defaultValue = "5") int limit) {
+        return ResponseEntity.ok(roomService.findStayWindows(hotelId, nights, startDate, endDate, order, limit));
     }
 
     @PostMapping
@@ -84,15 +167,43 @@ public class RoomController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/maintenance")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Block rooms for maintenance windows",
+               description = "Admin only. All windows in one transaction; 409 if a room is booked or blocked on a "
+                       + "night of its window. Blocked nights are unavailable like booked ones")
+    public ResponseEntity<List<MaintenanceBlockDto>> blockRooms(@Valid @RequestBody MaintenanceRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(availabilityConfirmationService.blockRooms(request));
+    }
+
+    @PostMapping("/maintenance/unblock")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Unblock rooms for maintenance windows",
+               description = "Admin only. Frees the windows' nights from maintenance blocks, shortening blocks that "
+                       + "reach beyond them")
+    public ResponseEntity<Void> unblockRooms(@Valid @RequestBody MaintenanceRequest request) {
+        availabilityConfirmationService.unblockRooms(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/{id}/confirm-availability")
     @Operation(summary = "Confirm room availability (internal)", description = "Called by Booking Service")
     public ResponseEntity<AvailabilityResponse> confirmAvailability(
             @PathVariable Long id,
             @Valid @RequestBody ConfirmAvailabilityRequest request) {
-        AvailabilityResponse response = roomService.confirmAvailability(id, request);
+        AvailabilityResponse response = availabilityConfirmationService.confirmAvailability(id, request);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/hotel/{hotelId}/confirm-availability")
+    @Operation(summary = "Lock several rooms of a hotel for the same dates (internal)",
+               description = "All rooms or none; the lock of the i-th room is released with requestId-i")
+    public ResponseEntity<GroupAvailabilityResponse> confirmGroupAvailability(
+            @PathVariable Long hotelId,
+            @Valid @RequestBody GroupAvailabilityRequest request) {
+        return ResponseEntity.ok(availabilityConfirmationService.confirmGroupAvailability(hotelId, request));
+    }
+
     @PostMapping("/{id}/confirm-booking")
     @Operation(summary = "Confirm booking and increment times_booked (internal)")
     public ResponseEntity<Void> confirmBooking(
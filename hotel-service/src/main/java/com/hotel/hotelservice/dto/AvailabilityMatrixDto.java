@@ -0,0 +1,21 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Occupancy of every room of a hotel over {@code [startDate, endDate]}, one row of {@code days} bits per room.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityMatrixDto {
+    private Long hotelId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int days;
+    private List<RoomOccupancyDto> rooms;
+}
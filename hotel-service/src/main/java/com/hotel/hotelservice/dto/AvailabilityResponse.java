@@ -7,7 +7,7 @@ import java.time.LocalDate;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AvailabilityResponse {
     private Long roomId;
     private String requestId;
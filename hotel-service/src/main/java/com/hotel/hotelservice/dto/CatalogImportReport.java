@@ -0,0 +1,21 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+/**
+ * Outcome of a catalog import. Rows naming an existing hotel without a room, or a room number the hotel already
+ * has, are counted as duplicates and skipped.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportReport {
+    private long rows;
+    private long hotelsCreated;
+    private long roomsCreated;
+    private long duplicatesSkipped;
+    private long batches;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
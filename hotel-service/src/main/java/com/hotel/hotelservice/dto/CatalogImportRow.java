@@ -0,0 +1,18 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+/**
+ * One line of a catalog import: a room of the named hotel, or the hotel alone if {@code number} is blank.
+ * Hotels are matched by name; the address is only used when the hotel is created.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogImportRow {
+    private String hotel;
+    private String address;
+    private String number;
+    private Boolean available;
+}
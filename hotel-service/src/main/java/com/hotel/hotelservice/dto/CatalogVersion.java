@@ -0,0 +1,8 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * Aggregate version of all hotels and rooms. Ids are never reused and both hotel versions only grow, so any
+ * create, update or delete changes at least one of the hotel count, the highest hotel id or the version sum.
+ */
+public record CatalogVersion(long hotels, long maxHotelId, long versionSum) {
+}
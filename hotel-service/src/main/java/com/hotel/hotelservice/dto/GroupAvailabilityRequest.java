@@ -0,0 +1,30 @@
+package com.hotel.hotelservice.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupAvailabilityRequest {
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    @NotNull(message = "Number of rooms is required")
+    @Min(value = 1, message = "At least one room is required")
+    private Integer rooms;
+
+    @NotBlank(message = "Request ID is required for idempotency")
+    private String requestId;
+
+    private Long bookingId;
+}
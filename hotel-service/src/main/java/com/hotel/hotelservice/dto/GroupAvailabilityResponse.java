@@ -0,0 +1,22 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Locks taken for a group stay, one per room; each carries the requestId under which that room is released.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupAvailabilityResponse {
+    private Long hotelId;
+    private String requestId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<AvailabilityResponse> rooms;
+    private String message;
+}
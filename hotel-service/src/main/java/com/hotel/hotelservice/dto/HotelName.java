@@ -0,0 +1,7 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * Id and name of a hotel, read without loading the entity.
+ */
+public record HotelName(Long id, String name) {
+}
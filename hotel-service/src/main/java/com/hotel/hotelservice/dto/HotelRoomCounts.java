@@ -0,0 +1,11 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * Room counters of one hotel, computed by a GROUP BY over rooms instead of loading the Room entities.
+ */
+public record HotelRoomCounts(Long hotelId, long totalRooms, long availableRooms) {
+
+    public static HotelRoomCounts empty(Long hotelId) {
+        return new HotelRoomCounts(hotelId, 0, 0);
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * Entity version and rooms modification counter of one hotel, read without loading the hotel.
+ */
+public record HotelVersion(Long hotelId, long version, long roomsVersion) {
+}
@@ -0,0 +1,19 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A maintenance block: a room lock that takes the room out of inventory for its nights only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceBlockDto {
+    private Long roomId;
+    private String requestId;
+    private LocalDate startDate;
+    private LocalDate endDate;
+}
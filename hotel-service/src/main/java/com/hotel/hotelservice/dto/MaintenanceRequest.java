@@ -0,0 +1,23 @@
+package com.hotel.hotelservice.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Maintenance windows applied in one transaction. With a requestId the i-th block, counting rooms window by window,
+ * gets the requestId {@code requestId-i}, so a retried block request returns the existing blocks.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceRequest {
+
+    @NotEmpty(message = "At least one window is required")
+    private List<@Valid MaintenanceWindow> windows;
+
+    private String requestId;
+}
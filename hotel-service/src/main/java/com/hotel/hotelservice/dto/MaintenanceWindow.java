@@ -0,0 +1,27 @@
+package com.hotel.hotelservice.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Rooms blocked or unblocked for the nights from startDate to endDate, both inclusive like a room lock.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MaintenanceWindow {
+
+    @NotEmpty(message = "At least one room is required")
+    private List<@NotNull Long> roomIds;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+}
@@ -0,0 +1,20 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+/**
+ * One row of an {@link AvailabilityMatrixDto}. {@code occupied} is the base64 encoding of {@code (days + 7) / 8}
+ * bytes in which bit {@code i} stands for day {@code startDate + i}, least significant bit first within each byte
+ * (the layout of {@code java.util.BitSet#toByteArray}): a set bit means the room is locked on that day. Rooms
+ * taken out of service are reported through {@code available}, not through the bits.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomOccupancyDto {
+    private Long roomId;
+    private String number;
+    private Boolean available;
+    private String occupied;
+}
@@ -0,0 +1,7 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * Versions a room's JSON depends on: its own, and those of its hotel for the hotel name and times_booked flushes.
+ */
+public record RoomVersion(Long roomId, long version, Long hotelId, long hotelVersion, long hotelRoomsVersion) {
+}
@@ -0,0 +1,19 @@
+package com.hotel.hotelservice.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A stay that {@code freeRooms} available rooms can take as a whole; the dates are passed as they are to
+ * confirm-availability or the date-range recommendations.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StayWindowDto {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private int freeRooms;
+}
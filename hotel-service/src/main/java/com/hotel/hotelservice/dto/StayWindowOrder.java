@@ -0,0 +1,17 @@
+package com.hotel.hotelservice.dto;
+
+/**
+ * How flexible-date searches rank the stay windows they find.
+ */
+public enum StayWindowOrder {
+
+    /**
+     * Earliest start date first.
+     */
+    EARLIEST,
+
+    /**
+     * Most free rooms first, earliest start date among equals.
+     */
+    LEAST_CONTENDED
+}
@@ -15,8 +15,15 @@ import java.util.List;
 @Builder
 public class Hotel {
 
+    public static final int ID_BLOCK_SIZE = 50;
+
+    /**
+     * Sequence ids in blocks of {@value #ID_BLOCK_SIZE} (pooled-lo: the sequence value is the first id of a block),
+     * so JPA can batch inserts and bulk imports can reserve ids without a round trip per row.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hotels_seq")
+    @SequenceGenerator(name = "hotels_seq", sequenceName = "hotels_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -25,6 +32,17 @@ public class Hotel {
     @Column(length = 500)
     private String address;
 
+    @Version
+    private Long version;
+
+    /**
+     * Modification counter of the hotel's rooms, bumped with bulk updates whenever a room is added, changed,
+     * moved or removed or its times_booked is flushed. Never written through the entity.
+     */
+    @Column(name = "rooms_version", nullable = false, updatable = false)
+    @Builder.Default
+    private Long roomsVersion = 0L;
+
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Room> rooms = new ArrayList<>();
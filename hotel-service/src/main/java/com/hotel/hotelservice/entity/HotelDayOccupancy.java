@@ -0,0 +1,48 @@
+package com.hotel.hotelservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of available rooms of a hotel in one slot that are locked on a night. The hotel's free rooms that night
+ * are its available rooms minus the sum of {@code lockedRooms} over the slots; nights without a row have no room
+ * locked. Slots spread one hotel's bookings over several rows, see {@code HotelOccupancyCounters}.
+ * Keyed by plain ids, like room_nights, so rows can be written from a separate transaction.
+ */
+@Entity
+@Table(name = "hotel_day_occupancy")
+@IdClass(HotelDayOccupancy.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HotelDayOccupancy {
+
+    @Id
+    @Column(name = "hotel_id")
+    private Long hotelId;
+
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+
+    @Id
+    @Column(name = "slot")
+    private int slot;
+
+    @Column(name = "locked_rooms", nullable = false)
+    private int lockedRooms;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long hotelId;
+        private LocalDate night;
+        private int slot;
+    }
+}
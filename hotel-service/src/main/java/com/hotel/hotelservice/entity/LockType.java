@@ -0,0 +1,15 @@
+package com.hotel.hotelservice.entity;
+
+/**
+ * What a {@link RoomLock} holds the room for. Both kinds occupy the room's nights alike in every availability check.
+ */
+public enum LockType {
+    /**
+     * Taken by a booking saga through confirm-availability; released or reaped if the booking does not complete.
+     */
+    BOOKING,
+    /**
+     * Takes the room out of inventory for the lock's date range only; created confirmed, so it is never reaped.
+     */
+    MAINTENANCE
+}
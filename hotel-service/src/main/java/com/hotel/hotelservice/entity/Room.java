@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "rooms")
+@Table(name = "rooms", indexes = {
+    @Index(name = "idx_room_available_times_booked", columnList = "available, times_booked, id"),
+    @Index(name = "idx_room_hotel_available_times_booked", columnList = "hotel_id, available, times_booked, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -12,8 +15,14 @@ import lombok.*;
 @Builder
 public class Room {
 
+    public static final int ID_BLOCK_SIZE = 50;
+
+    /**
+     * Sequence ids in blocks of {@value #ID_BLOCK_SIZE}, allocated like {@link Hotel#getId() hotel ids}.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_seq")
+    @SequenceGenerator(name = "rooms_seq", sequenceName = "rooms_seq", allocationSize = ID_BLOCK_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
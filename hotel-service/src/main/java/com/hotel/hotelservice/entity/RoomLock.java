@@ -45,4 +45,9 @@ public class RoomLock {
     @Column(name = "confirmed")
     @Builder.Default
     private Boolean confirmed = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "lock_type", nullable = false, length = 16)
+    @Builder.Default
+    private LockType type = LockType.BOOKING;
 }
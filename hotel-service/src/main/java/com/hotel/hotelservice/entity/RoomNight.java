@@ -0,0 +1,45 @@
+package com.hotel.hotelservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * One locked night of a room, used by the NIGHTS lock storage model.
+ * The (room_id, night) primary key makes a conflicting booking fail on insert instead of
+ * requiring a range-overlap query under a row lock.
+ */
+@Entity
+@Table(name = "room_nights", indexes = {
+    @Index(name = "idx_room_night_night", columnList = "night, room_id"),
+    @Index(name = "idx_room_night_request", columnList = "request_id")
+})
+@IdClass(RoomNight.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RoomNight {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Id
+    @Column(name = "night")
+    private LocalDate night;
+
+    @Column(name = "request_id", nullable = false)
+    private String requestId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long roomId;
+        private LocalDate night;
+    }
+}
@@ -20,8 +20,15 @@ public interface HotelMapper {
     @Mapping(target = "availableRooms", constant = "0")
     HotelDto toDtoWithoutRooms(Hotel hotel);
 
-    @IterableMapping(qualifiedByName = "toDtoWithoutRooms")
-    List<HotelDto> toDtoList(List<Hotel> hotels);
+    /**
+     * Hotel without its rooms, with counters taken from a {@link HotelRoomCounts} projection.
+     */
+    default HotelDto toDto(Hotel hotel, HotelRoomCounts counts) {
+        HotelDto dto = toDtoWithoutRooms(hotel);
+        dto.setTotalRooms(counts != null ? (int) counts.totalRooms() : 0);
+        dto.setAvailableRooms(counts != null ? (int) counts.availableRooms() : 0);
+        return dto;
+    }
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "rooms", ignore = true)
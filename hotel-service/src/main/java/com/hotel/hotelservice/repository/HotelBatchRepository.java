@@ -0,0 +1,16 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.Hotel;
+
+import java.util.List;
+
+/**
+ * JDBC batch insert for hotels, used by bulk imports.
+ */
+public interface HotelBatchRepository {
+
+    /**
+     * Assigns ids from hotels_seq and inserts the hotels as a single JDBC batch. The entities are not attached.
+     */
+    void insertAll(List<Hotel> hotels);
+}
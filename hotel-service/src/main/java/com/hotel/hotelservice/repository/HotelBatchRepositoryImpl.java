@@ -0,0 +1,31 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.Hotel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class HotelBatchRepositoryImpl implements HotelBatchRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO hotels (id, name, address, version, rooms_version) VALUES (?, ?, ?, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceBlocks sequenceBlocks;
+
+    @Override
+    public void insertAll(List<Hotel> hotels) {
+        long[] ids = sequenceBlocks.next("hotels_seq", Hotel.ID_BLOCK_SIZE, hotels.size());
+        List<Object[]> rows = new ArrayList<>(hotels.size());
+        for (int i = 0; i < hotels.size(); i++) {
+            Hotel hotel = hotels.get(i);
+            hotel.setId(ids[i]);
+            hotel.setVersion(0L);
+            rows.add(new Object[]{hotel.getId(), hotel.getName(), hotel.getAddress()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.HotelDayOccupancy;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * JDBC batch writes for hotel_day_occupancy, one statement per (hotel, night, slot) in a single batch.
+ */
+public interface HotelDayOccupancyBatchRepository {
+
+    /**
+     * Inserts a row with no locked rooms for each key that has none yet.
+     */
+    void insertMissing(Collection<HotelDayOccupancy.Key> keys);
+
+    /**
+     * Inserts a row per key with its value as the locked rooms.
+     */
+    void insertAll(Map<HotelDayOccupancy.Key, Integer> lockedRooms);
+
+    /**
+     * Adds each delta to the locked rooms of its row, in the iteration order of {@code deltas}.
+     *
+     * @return rows updated per delta, in the same order; 0 where the row does not exist
+     */
+    int[] addLockedRooms(Map<HotelDayOccupancy.Key, Integer> deltas);
+}
@@ -0,0 +1,51 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.HotelDayOccupancy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class HotelDayOccupancyBatchRepositoryImpl implements HotelDayOccupancyBatchRepository {
+
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO hotel_day_occupancy (hotel_id, night, slot, locked_rooms) SELECT ?, ?, ?, 0 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM hotel_day_occupancy WHERE hotel_id = ? AND night = ? AND slot = ?)";
+    private static final String INSERT_SQL =
+            "INSERT INTO hotel_day_occupancy (hotel_id, night, slot, locked_rooms) VALUES (?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE hotel_day_occupancy SET locked_rooms = locked_rooms + ? WHERE hotel_id = ? AND night = ? AND slot = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertMissing(Collection<HotelDayOccupancy.Key> keys) {
+        List<Object[]> rows = new ArrayList<>(keys.size());
+        for (HotelDayOccupancy.Key key : keys) {
+            Date night = Date.valueOf(key.getNight());
+            rows.add(new Object[]{key.getHotelId(), night, key.getSlot(), key.getHotelId(), night, key.getSlot()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_MISSING_SQL, rows);
+    }
+
+    @Override
+    public void insertAll(Map<HotelDayOccupancy.Key, Integer> lockedRooms) {
+        List<Object[]> rows = new ArrayList<>(lockedRooms.size());
+        lockedRooms.forEach((key, locked) ->
+                rows.add(new Object[]{key.getHotelId(), Date.valueOf(key.getNight()), key.getSlot(), locked}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Override
+    public int[] addLockedRooms(Map<HotelDayOccupancy.Key, Integer> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) ->
+                rows.add(new Object[]{delta, key.getHotelId(), Date.valueOf(key.getNight()), key.getSlot()}));
+        return jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+    }
+}
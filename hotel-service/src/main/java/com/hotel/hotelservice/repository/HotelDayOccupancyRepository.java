@@ -0,0 +1,23 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.HotelDayOccupancy;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface HotelDayOccupancyRepository extends JpaRepository<HotelDayOccupancy, HotelDayOccupancy.Key>,
+        HotelDayOccupancyBatchRepository {
+
+    @Query("SELECT DISTINCT o.night FROM HotelDayOccupancy o WHERE o.hotelId = :hotelId AND o.night BETWEEN :from AND :to")
+    List<LocalDate> findNights(@Param("hotelId") Long hotelId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("DELETE FROM HotelDayOccupancy o WHERE o.hotelId = :hotelId")
+    int deleteByHotelId(@Param("hotelId") Long hotelId);
+}
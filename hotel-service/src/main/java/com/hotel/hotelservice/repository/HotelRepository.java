@@ -1,26 +1,132 @@
 package com.hotel.hotelservice.repository;
 
+import com.hotel.hotelservice.dto.CatalogVersion;
+import com.hotel.hotelservice.dto.HotelName;
+import com.hotel.hotelservice.dto.HotelRoomCounts;
+import com.hotel.hotelservice.dto.HotelVersion;
 import com.hotel.hotelservice.entity.Hotel;
-import org.springframework.data.domain.Page;
+import com.hotel.hotelservice.search.HotelSearchEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface HotelRepository extends JpaRepository<Hotel, Long> {
+public interface HotelRepository extends JpaRepository<Hotel, Long>, HotelBatchRepository {
+
+    String NAME_OR_ADDRESS_LIKE = "LOWER(h.name) LIKE LOWER(CONCAT('%', :search, '%')) " +
+            "OR LOWER(h.address) LIKE LOWER(CONCAT('%', :search, '%'))";
+
+    String AVAILABLE_ROOMS = "(SELECT COUNT(r) FROM Room r WHERE r.hotel.id = h.id AND r.available = true)";
+
+    /**
+     * At least :rooms rooms free on every night of [:startDate, :endDate]: the hotel has :rooms available rooms and
+     * no night whose locked rooms, summed over the counter slots, leave fewer, read from the occupancy counters
+     * instead of room_locks.
+     */
+    String HAS_FREE_ROOMS = AVAILABLE_ROOMS + " >= :rooms AND NOT EXISTS (SELECT o.night FROM HotelDayOccupancy o " +
+            "WHERE o.hotelId = h.id AND o.night BETWEEN :startDate AND :endDate GROUP BY o.night " +
+            "HAVING SUM(o.lockedRooms) > " + AVAILABLE_ROOMS + " - :rooms)";
 
     Optional<Hotel> findByName(String name);
 
-    @Query("SELECT h FROM Hotel h WHERE LOWER(h.name) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(h.address) LIKE LOWER(CONCAT('%', :search, '%'))")
-    Page<Hotel> searchByNameOrAddress(@Param("search") String search, Pageable pageable);
+    @Query("SELECT new com.hotel.hotelservice.dto.HotelName(h.id, h.name) FROM Hotel h")
+    List<HotelName> findAllNames();
+
+    Slice<Hotel> findAllBy(Pageable pageable);
+
+    /**
+     * All hotels from an open cursor, read {@code fetch_size} rows at a time and not tracked for dirty checking.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM Hotel h ORDER BY h.id")
+    Stream<Hotel> streamAllBy();
+
+    List<Hotel> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Reads one row past the page to tell whether another page follows, without the COUNT a Page would run.
+     */
+    @Query("SELECT h FROM Hotel h WHERE " + NAME_OR_ADDRESS_LIKE)
+    Slice<Hotel> searchByNameOrAddress(@Param("search") String search, Pageable pageable);
+
+    @Query("SELECT COUNT(h) FROM Hotel h WHERE " + NAME_OR_ADDRESS_LIKE)
+    long countByNameOrAddress(@Param("search") String search);
+
+    @Query("SELECT h FROM Hotel h WHERE (" + NAME_OR_ADDRESS_LIKE + ") AND " + HAS_FREE_ROOMS)
+    Slice<Hotel> searchByNameOrAddressWithFreeRooms(@Param("search") String search,
+                                                    @Param("startDate") LocalDate startDate,
+                                                    @Param("endDate") LocalDate endDate,
+                                                    @Param("rooms") long rooms,
+                                                    Pageable pageable);
+
+    @Query("SELECT COUNT(h) FROM Hotel h WHERE (" + NAME_OR_ADDRESS_LIKE + ") AND " + HAS_FREE_ROOMS)
+    long countByNameOrAddressWithFreeRooms(@Param("search") String search,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate,
+                                           @Param("rooms") long rooms);
+
+    @Query("SELECT h.id FROM Hotel h WHERE h.id IN :ids AND " + HAS_FREE_ROOMS)
+    List<Long> findIdsWithFreeRooms(@Param("ids") Collection<Long> ids,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("rooms") long rooms);
 
     @Query("SELECT h FROM Hotel h LEFT JOIN FETCH h.rooms WHERE h.id = :id")
     Optional<Hotel> findByIdWithRooms(@Param("id") Long id);
 
     List<Hotel> findByAddressContainingIgnoreCase(String address);
+
+    @Query("SELECT new com.hotel.hotelservice.dto.HotelRoomCounts(r.hotel.id, COUNT(r), " +
+           "SUM(CASE WHEN r.available = true THEN 1 ELSE 0 END)) " +
+           "FROM Room r WHERE r.hotel.id IN :hotelIds GROUP BY r.hotel.id")
+    List<HotelRoomCounts> findRoomCountsByHotelIdIn(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("SELECT new com.hotel.hotelservice.dto.HotelRoomCounts(r.hotel.id, COUNT(r), " +
+           "SUM(CASE WHEN r.available = true THEN 1 ELSE 0 END)) " +
+           "FROM Room r GROUP BY r.hotel.id")
+    List<HotelRoomCounts> findAllRoomCounts();
+
+    @Query("SELECT new com.hotel.hotelservice.dto.HotelVersion(h.id, h.version, h.roomsVersion) " +
+           "FROM Hotel h WHERE h.id = :id")
+    Optional<HotelVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.hotel.hotelservice.dto.CatalogVersion(COUNT(h), COALESCE(MAX(h.id), 0L), " +
+           "COALESCE(SUM(h.version + h.roomsVersion), 0L)) FROM Hotel h")
+    CatalogVersion findCatalogVersion();
+
+    /**
+     * Deletes the hotel row alone, without loading the hotel and its rooms for the orphanRemoval cascade; the
+     * rooms must be gone already.
+     */
+    @Modifying
+    @Query("DELETE FROM Hotel h WHERE h.id = :id")
+    int deleteHotelRow(@Param("id") Long id);
+
+    /**
+     * Bumps the rooms modification counter of the given hotels, leaving their entity version alone.
+     */
+    @Modifying
+    @Query("UPDATE Hotel h SET h.roomsVersion = h.roomsVersion + 1 WHERE h.id IN :hotelIds")
+    int incrementRoomsVersion(@Param("hotelIds") Collection<Long> hotelIds);
+
+    @Query("SELECT new com.hotel.hotelservice.search.HotelSearchEntry(h.id, h.name, h.address) FROM Hotel h")
+    List<HotelSearchEntry> findAllSearchEntries();
 }
@@ -0,0 +1,17 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.Room;
+
+import java.util.List;
+
+/**
+ * JDBC batch insert for rooms, used by bulk imports.
+ */
+public interface RoomBatchRepository {
+
+    /**
+     * Assigns ids from rooms_seq and inserts the rooms as a single JDBC batch. Each room's hotel must already
+     * have an id. The entities are not attached.
+     */
+    void insertAll(List<Room> rooms);
+}
@@ -0,0 +1,31 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.Room;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class RoomBatchRepositoryImpl implements RoomBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO rooms (id, hotel_id, number, available, times_booked, version) " +
+            "VALUES (?, ?, ?, ?, 0, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceBlocks sequenceBlocks;
+
+    @Override
+    public void insertAll(List<Room> rooms) {
+        long[] ids = sequenceBlocks.next("rooms_seq", Room.ID_BLOCK_SIZE, rooms.size());
+        List<Object[]> rows = new ArrayList<>(rooms.size());
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            room.setId(ids[i]);
+            room.setVersion(0L);
+            rows.add(new Object[]{room.getId(), room.getHotel().getId(), room.getNumber(), room.getAvailable()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
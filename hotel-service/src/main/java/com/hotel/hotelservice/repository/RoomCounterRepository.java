@@ -0,0 +1,16 @@
+package com.hotel.hotelservice.repository;
+
+import java.util.Map;
+
+/**
+ * JDBC batch updates of rooms.times_booked that bypass the entity, so flushing booking counters neither
+ * bumps the room version nor loads the rooms. The rooms version of the affected hotels is bumped instead.
+ */
+public interface RoomCounterRepository {
+
+    /**
+     * Adds each delta to the room's times_booked in a single JDBC batch, never going below zero. Run it inside
+     * a transaction, otherwise the batch and the hotel version bump commit separately.
+     */
+    void addTimesBooked(Map<Long, Long> deltas);
+}
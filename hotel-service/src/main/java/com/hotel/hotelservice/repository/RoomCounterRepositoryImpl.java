@@ -0,0 +1,41 @@
+package com.hotel.hotelservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+class RoomCounterRepositoryImpl implements RoomCounterRepository {
+
+    private static final String UPDATE_SQL =
+            "UPDATE rooms SET times_booked = GREATEST(COALESCE(times_booked, 0) + ?, 0) WHERE id = ?";
+    // Room ids per hotel bump statement; the last chunk is padded, so every statement has the same text
+    private static final int BUMP_CHUNK_SIZE = 500;
+    private static final String BUMP_HOTELS_SQL =
+            "UPDATE hotels SET rooms_version = rooms_version + 1 WHERE id IN (SELECT hotel_id FROM rooms WHERE id IN ("
+                    + String.join(",", Collections.nCopies(BUMP_CHUNK_SIZE, "?")) + "))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addTimesBooked(Map<Long, Long> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((roomId, delta) -> rows.add(new Object[]{delta, roomId}));
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        // after the rooms, so a concurrent reader can at worst pair new counters with the old ETag; a hotel whose
+        // rooms span several chunks is bumped more than once, which only matters for its ETag
+        List<Long> roomIds = List.copyOf(deltas.keySet());
+        for (int from = 0; from < roomIds.size(); from += BUMP_CHUNK_SIZE) {
+            List<Long> chunk = roomIds.subList(from, Math.min(from + BUMP_CHUNK_SIZE, roomIds.size()));
+            Object[] args = new Object[BUMP_CHUNK_SIZE];
+            Arrays.fill(args, chunk.get(chunk.size() - 1));
+            System.arraycopy(chunk.toArray(), 0, args, 0, chunk.size());
+            jdbcTemplate.update(BUMP_HOTELS_SQL, args);
+        }
+    }
+}
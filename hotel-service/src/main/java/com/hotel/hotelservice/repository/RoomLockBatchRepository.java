@@ -0,0 +1,16 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.RoomLock;
+
+import java.util.List;
+
+/**
+ * JDBC batch insert for room_locks: with IDENTITY ids JPA would insert the locks one statement at a time.
+ */
+public interface RoomLockBatchRepository {
+
+    /**
+     * Inserts the locks as a single JDBC batch. The entities are not attached and do not get their ids.
+     */
+    void insertAll(List<RoomLock> locks);
+}
@@ -0,0 +1,31 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.RoomLock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class RoomLockBatchRepositoryImpl implements RoomLockBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO room_locks " +
+            "(room_id, start_date, end_date, request_id, booking_id, created_at, confirmed, lock_type) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<RoomLock> locks) {
+        List<Object[]> rows = new ArrayList<>(locks.size());
+        for (RoomLock lock : locks) {
+            rows.add(new Object[]{lock.getRoom().getId(), Date.valueOf(lock.getStartDate()),
+                    Date.valueOf(lock.getEndDate()), lock.getRequestId(), lock.getBookingId(),
+                    Timestamp.valueOf(lock.getCreatedAt()), lock.getConfirmed(), lock.getType().name()});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+}
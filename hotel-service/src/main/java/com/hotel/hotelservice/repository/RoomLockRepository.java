@@ -1,23 +1,31 @@
 package com.hotel.hotelservice.repository;
 
+import com.hotel.hotelservice.availability.ExpiredRoomLock;
+import com.hotel.hotelservice.availability.RoomLockSpan;
+import com.hotel.hotelservice.entity.LockType;
 import com.hotel.hotelservice.entity.RoomLock;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface RoomLockRepository extends JpaRepository<RoomLock, Long> {
+public interface RoomLockRepository extends JpaRepository<RoomLock, Long>, RoomLockBatchRepository {
 
     Optional<RoomLock> findByRequestId(String requestId);
 
     List<RoomLock> findByRoomId(Long roomId);
 
+    List<RoomLock> findByRequestIdIn(Collection<String> requestIds);
+
     Optional<RoomLock> findByRoomIdAndRequestId(Long roomId, String requestId);
 
     @Query("SELECT rl FROM RoomLock rl WHERE rl.room.id = :roomId AND " +
@@ -26,6 +34,12 @@ public interface RoomLockRepository extends JpaRepository<RoomLock, Long> {
                                          @Param("startDate") LocalDate startDate,
                                          @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT DISTINCT rl.room.id FROM RoomLock rl WHERE rl.room.id IN :roomIds " +
+           "AND rl.startDate <= :endDate AND rl.endDate >= :startDate")
+    List<Long> findRoomIdsWithOverlappingLocks(@Param("roomIds") Collection<Long> roomIds,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
     @Query("SELECT CASE WHEN COUNT(rl) > 0 THEN true ELSE false END FROM RoomLock rl " +
            "WHERE rl.room.id = :roomId AND " +
            "((rl.startDate <= :endDate AND rl.endDate >= :startDate))")
@@ -33,10 +47,77 @@ public interface RoomLockRepository extends JpaRepository<RoomLock, Long> {
                                    @Param("startDate") LocalDate startDate,
                                    @Param("endDate") LocalDate endDate);
 
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomLockSpan(rl.room.id, rl.startDate, rl.endDate, rl.requestId) " +
+           "FROM RoomLock rl")
+    List<RoomLockSpan> findAllSpans();
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomLockSpan(rl.room.id, rl.startDate, rl.endDate, rl.requestId) " +
+           "FROM RoomLock rl WHERE rl.startDate <= :endDate AND rl.endDate >= :startDate")
+    List<RoomLockSpan> findSpansOverlapping(@Param("startDate") LocalDate startDate,
+                                            @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomLockSpan(rl.room.id, rl.startDate, rl.endDate, rl.requestId) " +
+           "FROM RoomLock rl WHERE rl.room.hotel.id = :hotelId " +
+           "AND rl.startDate <= :endDate AND rl.endDate >= :startDate")
+    List<RoomLockSpan> findHotelSpansOverlapping(@Param("hotelId") Long hotelId,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomLockSpan(rl.room.id, rl.startDate, rl.endDate, rl.requestId) " +
+           "FROM RoomLock rl WHERE rl.room.id = :roomId")
+    List<RoomLockSpan> findSpansByRoomId(@Param("roomId") Long roomId);
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomLockSpan(rl.room.id, rl.startDate, rl.endDate, rl.requestId) " +
+           "FROM RoomLock rl WHERE rl.type = :type AND rl.room.id IN :roomIds " +
+           "AND rl.startDate <= :endDate AND rl.endDate >= :startDate")
+    List<RoomLockSpan> findSpansOfTypeOverlapping(@Param("type") LockType type,
+                                                  @Param("roomIds") Collection<Long> roomIds,
+                                                  @Param("startDate") LocalDate startDate,
+                                                  @Param("endDate") LocalDate endDate);
+
     void deleteByRequestId(String requestId);
 
     void deleteByBookingId(Long bookingId);
 
+    @Modifying
     @Query("DELETE FROM RoomLock rl WHERE rl.confirmed = false AND rl.createdAt < :threshold")
-    void deleteExpiredUnconfirmedLocks(@Param("threshold") LocalDateTime threshold);
+    int deleteExpiredUnconfirmedLocks(@Param("threshold") LocalDateTime threshold);
+
+    /**
+     * Keyset page of expired unconfirmed locks with an id greater than afterId, ordered by id.
+     */
+    @Query("SELECT new com.hotel.hotelservice.availability.ExpiredRoomLock(rl.id, rl.room.id, rl.requestId, " +
+           "rl.startDate, rl.endDate) " +
+           "FROM RoomLock rl WHERE rl.confirmed = false AND rl.createdAt < :threshold AND rl.id > :afterId " +
+           "ORDER BY rl.id")
+    List<ExpiredRoomLock> findExpiredUnconfirmedLocks(@Param("threshold") LocalDateTime threshold,
+                                                       @Param("afterId") Long afterId,
+                                                       Limit limit);
+
+    /**
+     * Deletes the given locks unless they have been confirmed in the meantime.
+     */
+    @Modifying
+    @Query("DELETE FROM RoomLock rl WHERE rl.id IN :ids AND rl.confirmed = false")
+    int deleteUnconfirmedByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM RoomLock rl WHERE rl.requestId IN :requestIds")
+    int deleteByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+
+    @Modifying
+    @Query("DELETE FROM RoomLock rl WHERE rl.room.id = :roomId")
+    int deleteAllByRoomId(@Param("roomId") Long roomId);
+
+    @Modifying
+    @Query("DELETE FROM RoomLock rl WHERE rl.room.id IN (SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId)")
+    int deleteAllByHotelId(@Param("hotelId") Long hotelId);
+
+    /**
+     * Ids of the given locks that are still unconfirmed, row-locked in id order so that a concurrent confirm,
+     * release or room delete waits for the caller's transaction.
+     */
+    @Query(value = "SELECT id FROM room_locks WHERE id IN (:ids) AND confirmed = false ORDER BY id FOR UPDATE",
+           nativeQuery = true)
+    List<Long> lockUnconfirmedIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,29 @@
+package com.hotel.hotelservice.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * JDBC batch writes for room_nights, which JPA would otherwise insert one statement per night.
+ */
+public interface RoomNightBatchRepository {
+
+    /**
+     * Inserts one row per night in [startDate, endDate] as a single JDBC batch.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if any of the nights is already taken
+     */
+    void insertNights(Long roomId, String requestId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Inserts pre-expanded rows, each given as {roomId, night, requestId}, in batches of batchSize.
+     */
+    void insertAll(List<Object[]> rows, int batchSize);
+
+    /**
+     * Like {@link #insertAll}, but skips rows whose room and night are already taken instead of failing.
+     *
+     * @return number of rows inserted
+     */
+    int insertMissing(List<Object[]> rows, int batchSize);
+}
@@ -0,0 +1,53 @@
+package com.hotel.hotelservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+class RoomNightBatchRepositoryImpl implements RoomNightBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO room_nights (room_id, night, request_id) VALUES (?, ?, ?)";
+    private static final String INSERT_MISSING_SQL =
+            "INSERT INTO room_nights (room_id, night, request_id) SELECT ?, ?, ? " +
+            "WHERE NOT EXISTS (SELECT 1 FROM room_nights WHERE room_id = ? AND night = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertNights(Long roomId, String requestId, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDate night = startDate; !night.isAfter(endDate); night = night.plusDays(1)) {
+            rows.add(new Object[]{roomId, Date.valueOf(night), requestId});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    @Override
+    public void insertAll(List<Object[]> rows, int batchSize) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.subList(from, Math.min(rows.size(), from + batchSize)));
+        }
+    }
+
+    @Override
+    public int insertMissing(List<Object[]> rows, int batchSize) {
+        int inserted = 0;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Object[] row : rows.subList(from, Math.min(rows.size(), from + batchSize))) {
+                batch.add(new Object[]{row[0], row[1], row[2], row[0], row[1]});
+            }
+            for (int count : jdbcTemplate.batchUpdate(INSERT_MISSING_SQL, batch)) {
+                if (count != 0) {
+                    inserted++;
+                }
+            }
+        }
+        return inserted;
+    }
+}
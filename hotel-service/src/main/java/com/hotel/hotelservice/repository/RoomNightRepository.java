@@ -0,0 +1,34 @@
+package com.hotel.hotelservice.repository;
+
+import com.hotel.hotelservice.entity.RoomNight;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomNightRepository extends JpaRepository<RoomNight, RoomNight.Key>, RoomNightBatchRepository {
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.roomId = :roomId AND n.requestId = :requestId")
+    int deleteByRoomIdAndRequestId(@Param("roomId") Long roomId, @Param("requestId") String requestId);
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.roomId = :roomId")
+    int deleteByRoomId(@Param("roomId") Long roomId);
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.roomId IN (SELECT r.id FROM Room r WHERE r.hotel.id = :hotelId)")
+    int deleteByHotelId(@Param("hotelId") Long hotelId);
+
+    @Modifying
+    @Query("DELETE FROM RoomNight n WHERE n.requestId IN :requestIds")
+    int deleteByRequestIdIn(@Param("requestIds") Collection<String> requestIds);
+
+    @Query("SELECT DISTINCT n.requestId FROM RoomNight n")
+    List<String> findDistinctRequestIds();
+}
@@ -1,54 +1,164 @@
 package com.hotel.hotelservice.repository;
 
+import com.hotel.hotelservice.availability.RoomHotel;
+import com.hotel.hotelservice.dto.RoomDto;
+import com.hotel.hotelservice.dto.RoomVersion;
 import com.hotel.hotelservice.entity.Room;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface RoomRepository extends JpaRepository<Room, Long> {
+public interface RoomRepository extends JpaRepository<Room, Long>, RoomCounterRepository, RoomBatchRepository {
+
+    /**
+     * Select clause of the listing queries: rooms are read straight into {@link RoomDto} with the hotel name joined
+     * in, so listings neither load Room entities nor lazily load one Hotel per distinct hotel.
+     */
+    String SELECT_ROOM_DTO = "SELECT new com.hotel.hotelservice.dto.RoomDto(" +
+            "r.id, h.id, h.name, r.number, r.available, r.timesBooked) FROM Room r JOIN r.hotel h ";
 
     List<Room> findByHotelId(Long hotelId);
 
     Page<Room> findByHotelId(Long hotelId, Pageable pageable);
 
-    List<Room> findByAvailableTrue();
+    @Query(SELECT_ROOM_DTO + "WHERE r.id = :id")
+    Optional<RoomDto> findRoomDtoById(@Param("id") Long id);
+
+    @Query("SELECT new com.hotel.hotelservice.dto.RoomVersion(r.id, COALESCE(r.version, 0L), h.id, h.version, " +
+           "h.roomsVersion) FROM Room r JOIN r.hotel h WHERE r.id = :id")
+    Optional<RoomVersion> findVersionById(@Param("id") Long id);
+
+    @Query(SELECT_ROOM_DTO + "WHERE h.id = :hotelId ORDER BY r.id ASC")
+    List<RoomDto> findRoomDtosByHotelId(@Param("hotelId") Long hotelId);
+
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true ORDER BY r.id ASC")
+    List<RoomDto> findAvailableRoomDtos();
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomHotel(r.id, r.hotel.id) FROM Room r " +
+           "WHERE r.available = true")
+    List<RoomHotel> findAvailableRoomHotels();
+
+    @Query("SELECT new com.hotel.hotelservice.availability.RoomHotel(r.id, r.hotel.id) FROM Room r " +
+           "WHERE r.available = true AND r.id IN :ids")
+    List<RoomHotel> findAvailableRoomHotelsByIdIn(@Param("ids") Collection<Long> ids);
 
-    @Query("SELECT r FROM Room r WHERE r.available = true ORDER BY r.timesBooked ASC, r.id ASC")
-    List<Room> findAvailableRoomsSortedByTimesBooked();
+    /**
+     * {@link #findAvailableRoomDtos} from an open cursor, read {@code fetch_size} rows at a time.
+     * Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true ORDER BY r.id ASC")
+    Stream<RoomDto> streamAvailableRoomDtos();
 
-    @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId AND r.available = true ORDER BY r.timesBooked ASC, r.id ASC")
-    List<Room> findAvailableRoomsByHotelSortedByTimesBooked(@Param("hotelId") Long hotelId);
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true ORDER BY r.timesBooked ASC, r.id ASC")
+    Slice<RoomDto> findAvailableRoomsSortedByTimesBooked(Pageable pageable);
+
+    @Query(SELECT_ROOM_DTO + "WHERE h.id = :hotelId AND r.available = true ORDER BY r.timesBooked ASC, r.id ASC")
+    Slice<RoomDto> findAvailableRoomsByHotelSortedByTimesBooked(@Param("hotelId") Long hotelId, Pageable pageable);
+
+    /**
+     * Keyset continuation of {@link #findAvailableRoomsSortedByTimesBooked}: rooms after the given
+     * {@code (timesBooked, id)} key, served from the {@code idx_room_available_times_booked} index.
+     */
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true AND " +
+           "(r.timesBooked > :timesBooked OR (r.timesBooked = :timesBooked AND r.id > :afterId)) " +
+           "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<RoomDto> findAvailableRoomsAfter(@Param("timesBooked") int timesBooked,
+                                          @Param("afterId") long afterId,
+                                          Limit limit);
+
+    @Query(SELECT_ROOM_DTO + "WHERE h.id = :hotelId AND r.available = true AND " +
+           "(r.timesBooked > :timesBooked OR (r.timesBooked = :timesBooked AND r.id > :afterId)) " +
+           "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<RoomDto> findAvailableRoomsByHotelAfter(@Param("hotelId") Long hotelId,
+                                                 @Param("timesBooked") int timesBooked,
+                                                 @Param("afterId") long afterId,
+                                                 Limit limit);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT r FROM Room r WHERE r.id = :id")
     Optional<Room> findByIdWithLock(@Param("id") Long id);
 
-    @Query("SELECT r FROM Room r WHERE r.available = true AND r.id NOT IN " +
+    /**
+     * Locks the rooms in id order, so that two transactions locking overlapping sets cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    List<Room> findAllByIdWithLock(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Ids of the hotel's rooms, row-locked in id order like {@link #findAllByIdWithLock} but without loading them.
+     */
+    @Query(value = "SELECT id FROM rooms WHERE hotel_id = :hotelId ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByHotelId(@Param("hotelId") Long hotelId);
+
+    @Modifying
+    @Query("DELETE FROM Room r WHERE r.hotel.id = :hotelId")
+    int deleteAllByHotelId(@Param("hotelId") Long hotelId);
+
+    /**
+     * Conditional version bump used by the optimistic booking path; returns 0 if the room changed since it was read.
+     * Seed rows may have a NULL version, which is treated as 0.
+     */
+    @Modifying
+    @Query("UPDATE Room r SET r.version = COALESCE(r.version, 0) + 1 " +
+           "WHERE r.id = :id AND COALESCE(r.version, 0) = :version")
+    int incrementVersion(@Param("id") Long id, @Param("version") long version);
+
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true AND r.id NOT IN " +
            "(SELECT rl.room.id FROM RoomLock rl WHERE " +
            "((rl.startDate <= :endDate AND rl.endDate >= :startDate) OR " +
            "(rl.startDate >= :startDate AND rl.startDate <= :endDate))) " +
            "ORDER BY r.timesBooked ASC, r.id ASC")
-    List<Room> findAvailableRoomsForDates(@Param("startDate") LocalDate startDate,
-                                           @Param("endDate") LocalDate endDate);
+    List<RoomDto> findAvailableRoomsForDates(@Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate,
+                                              Limit limit);
 
-    @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId AND r.available = true AND r.id NOT IN " +
+    @Query(SELECT_ROOM_DTO + "WHERE h.id = :hotelId AND r.available = true AND r.id NOT IN " +
            "(SELECT rl.room.id FROM RoomLock rl WHERE " +
            "((rl.startDate <= :endDate AND rl.endDate >= :startDate) OR " +
            "(rl.startDate >= :startDate AND rl.startDate <= :endDate))) " +
            "ORDER BY r.timesBooked ASC, r.id ASC")
-    List<Room> findAvailableRoomsForDatesByHotel(@Param("hotelId") Long hotelId,
-                                                  @Param("startDate") LocalDate startDate,
-                                                  @Param("endDate") LocalDate endDate);
+    List<RoomDto> findAvailableRoomsForDatesByHotel(@Param("hotelId") Long hotelId,
+                                                     @Param("startDate") LocalDate startDate,
+                                                     @Param("endDate") LocalDate endDate,
+                                                     Limit limit);
+
+    @Query(SELECT_ROOM_DTO + "WHERE r.available = true AND NOT EXISTS " +
+           "(SELECT n FROM RoomNight n WHERE n.roomId = r.id AND n.night BETWEEN :startDate AND :endDate) " +
+           "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<RoomDto> findAvailableRoomsForNights(@Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               Limit limit);
+
+    @Query(SELECT_ROOM_DTO + "WHERE h.id = :hotelId AND r.available = true AND NOT EXISTS " +
+           "(SELECT n FROM RoomNight n WHERE n.roomId = r.id AND n.night BETWEEN :startDate AND :endDate) " +
+           "ORDER BY r.timesBooked ASC, r.id ASC")
+    List<RoomDto> findAvailableRoomsForNightsByHotel(@Param("hotelId") Long hotelId,
+                                                      @Param("startDate") LocalDate startDate,
+                                                      @Param("endDate") LocalDate endDate,
+                                                      Limit limit);
 
     Optional<Room> findByHotelIdAndNumber(Long hotelId, String number);
+
+    @Query("SELECT r.number FROM Room r WHERE r.hotel.id = :hotelId")
+    List<String> findNumbersByHotelId(@Param("hotelId") Long hotelId);
 }
@@ -0,0 +1,36 @@
+package com.hotel.hotelservice.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reserves ids from a pooled-lo sequence the way Hibernate does: every sequence value is the first id of a block
+ * of {@code blockSize} ids, so ids taken here never collide with ids JPA assigns from the same sequence.
+ * The next-value query comes from the Hibernate dialect, like the SQL Hibernate itself issues for the sequence.
+ */
+@Component
+class SequenceBlocks {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    SequenceBlocks(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    long[] next(String sequence, int blockSize, int count) {
+        String nextValue = dialect.getSequenceSupport().getSequenceNextValString(sequence);
+        long[] ids = new long[count];
+        for (int from = 0; from < count; from += blockSize) {
+            long first = jdbcTemplate.queryForObject(nextValue, Long.class);
+            for (int i = from; i < Math.min(count, from + blockSize); i++) {
+                ids[i] = first + i - from;
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hotel.hotelservice.search;
+
+/**
+ * Searchable fields of a hotel, loaded as a projection to (re)build the trigram index without Hotel entities.
+ */
+public record HotelSearchEntry(Long id, String name, String address) {
+}
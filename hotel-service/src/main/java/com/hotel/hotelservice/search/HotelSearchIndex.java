@@ -0,0 +1,261 @@
+package com.hotel.hotelservice.search;
+
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.support.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over hotel name and address, answering the case-insensitive substring search
+ * of /api/hotels/search without a LIKE scan over the hotels table.
+ * Every three-character window of the lower-cased fields maps to a sorted posting list of hotel ids; a query is
+ * answered by intersecting the postings of its own trigrams, smallest first, and verifying the few remaining
+ * candidates against the stored text. Matches are ranked name prefix first, then other name matches, then
+ * address matches, shorter names first within a class.
+ * Queries shorter than three characters cannot be answered from trigrams and are left to the database.
+ */
+@Component
+@Slf4j
+public class HotelSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final HotelRepository hotelRepository;
+    private final boolean enabled;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private volatile boolean ready;
+
+    public HotelSearchIndex(HotelRepository hotelRepository,
+                            @Value("${hotel.search.index.enabled:true}") boolean enabled) {
+        this.hotelRepository = hotelRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ranked ids of hotels whose name or address contains the query, ignoring case.
+     *
+     * @return empty if the index cannot answer the query (disabled, rebuilding or query too short)
+     */
+    public Optional<List<Long>> search(String query) {
+        String term = query == null ? "" : normalize(query.trim());
+        if (!enabled || !ready || term.length() < GRAM) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            long[] grams = trigrams(term);
+            List<PostingList> lists = new ArrayList<>(grams.length);
+            for (long gram : grams) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return Optional.of(List.of());
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            PostingList smallest = lists.get(0);
+            List<Match> matches = new ArrayList<>();
+            candidates:
+            for (int i = 0; i < smallest.size(); i++) {
+                long id = smallest.get(i);
+                for (int l = 1; l < lists.size(); l++) {
+                    if (!lists.get(l).contains(id)) {
+                        continue candidates;
+                    }
+                }
+                Document document = documents.get(id);
+                int rank = document.rank(term);
+                if (rank >= 0) {
+                    matches.add(new Match(rank, document.name().length(), id));
+                }
+            }
+            matches.sort(Comparator.comparingInt(Match::rank)
+                    .thenComparingInt(Match::nameLength)
+                    .thenComparingLong(Match::id));
+            return Optional.of(matches.stream().map(Match::id).toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes a created or updated hotel once the surrounding transaction has committed.
+     */
+    public void put(Long id, String name, String address) {
+        if (enabled) {
+            TransactionHooks.afterCommit(() -> write(() -> index(new HotelSearchEntry(id, name, address))));
+        }
+    }
+
+    /**
+     * Drops a deleted hotel once the surrounding transaction has committed.
+     */
+    public void remove(Long id) {
+        if (enabled) {
+            TransactionHooks.afterCommit(() -> write(() -> unindex(id)));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Reloads the index from the hotels table. Searches fall back to the database while it runs.
+     *
+     * @return number of hotels indexed
+     */
+    public synchronized int rebuild() {
+        ready = false;
+        try {
+            List<HotelSearchEntry> entries = hotelRepository.findAllSearchEntries();
+            write(() -> {
+                documents.clear();
+                postings.clear();
+                entries.forEach(this::index);
+            });
+            log.info("Hotel search index rebuilt: {} hotels, {} trigrams", entries.size(), postings.size());
+            return entries.size();
+        } finally {
+            ready = true;
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(HotelSearchEntry entry) {
+        unindex(entry.id());
+        Document document = new Document(entry.id(), normalize(entry.name()), normalize(entry.address()));
+        documents.put(document.id(), document);
+        for (long gram : document.trigrams()) {
+            postings.computeIfAbsent(gram, g -> new PostingList()).add(document.id());
+        }
+    }
+
+    private void unindex(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (long gram : document.trigrams()) {
+            PostingList list = postings.get(gram);
+            if (list != null && list.remove(id) && list.size() == 0) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private void write(Runnable action) {
+        lock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Distinct trigrams of the given lower-cased texts, each packed as three 16-bit chars into a long.
+     */
+    static long[] trigrams(String... texts) {
+        Set<Long> grams = new HashSet<>();
+        for (String text : texts) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+            }
+        }
+        return grams.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private record Document(Long id, String name, String address) {
+
+        long[] trigrams() {
+            return HotelSearchIndex.trigrams(name, address);
+        }
+
+        /**
+         * 0 for a name prefix, 1 for another name match, 2 for an address match, -1 if the term is not contained.
+         */
+        int rank(String term) {
+            if (name.startsWith(term)) {
+                return 0;
+            }
+            if (name.contains(term)) {
+                return 1;
+            }
+            return address.contains(term) ? 2 : -1;
+        }
+    }
+
+    private record Match(int rank, int nameLength, long id) {
+    }
+
+    /**
+     * Sorted, growable array of hotel ids. Ids are mostly created in increasing order, so adds are usually appends.
+     */
+    static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int pos = size > 0 && ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                return;
+            }
+            int insert = -(pos + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) {
+                return false;
+            }
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+            return true;
+        }
+    }
+}
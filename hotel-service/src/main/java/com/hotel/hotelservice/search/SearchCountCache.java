@@ -0,0 +1,100 @@
+package com.hotel.hotelservice.search;
+
+import com.hotel.hotelservice.support.ExpiringMap;
+import com.hotel.hotelservice.support.TransactionHooks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-TTL cache of hotel totals by search term ("" for the unfiltered list), so paged responses that need an
+ * exact total do not rerun a COUNT(*) with the same unindexable LIKE predicate for every page.
+ * Entries share one TTL in an {@link ExpiringMap}; the whole cache is cleared once a transaction creating, updating
+ * or deleting a hotel commits, bumping a generation so that a total counted concurrently from the old state is not
+ * cached afterwards.
+ * Lookups and size are published as hotel.search.count-cache.gets and .size.
+ */
+@Component
+public class SearchCountCache {
+
+    private final boolean enabled;
+    private final ExpiringMap<String, Long> entries;
+    private long generation;
+    private final Counter hits;
+    private final Counter misses;
+
+    public SearchCountCache(@Value("${hotel.search.count-cache.enabled:true}") boolean enabled,
+                            @Value("${hotel.search.count-cache.max-size:1000}") int maxSize,
+                            @Value("${hotel.search.count-cache.ttl:30s}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.entries = new ExpiringMap<>(ttl, maxSize);
+        this.hits = gets(meterRegistry, "hit");
+        this.misses = gets(meterRegistry, "miss");
+        Gauge.builder("hotel.search.count-cache.size", this, SearchCountCache::size)
+                .description("Search totals currently cached")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Cached total for the term, computed with {@code counter} on a miss. The count runs outside the cache lock,
+     * so concurrent misses for one term may both count; a total counted across an invalidation is not cached.
+     */
+    public long count(String term, LongSupplier counter) {
+        if (!enabled) {
+            return counter.getAsLong();
+        }
+        String key = term.toLowerCase(Locale.ROOT);
+        long countedAt;
+        synchronized (entries) {
+            Long total = entries.get(key);
+            if (total != null) {
+                hits.increment();
+                return total;
+            }
+            countedAt = generation;
+        }
+        misses.increment();
+        long total = counter.getAsLong();
+        synchronized (entries) {
+            if (generation == countedAt) {
+                entries.put(key, total);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Clears every cached total once the surrounding transaction has committed.
+     */
+    public void invalidateAll() {
+        if (!enabled) {
+            return;
+        }
+        TransactionHooks.afterCommit(() -> {
+            synchronized (entries) {
+                generation++;
+                entries.clear();
+            }
+        });
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("hotel.search.count-cache.gets")
+                .description("Search total lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.availability.HotelOccupancyCounters;
+import com.hotel.hotelservice.availability.IdempotencyCache;
+import com.hotel.hotelservice.availability.RoomConcurrencyControl;
+import com.hotel.hotelservice.dto.AvailabilityResponse;
+import com.hotel.hotelservice.dto.ConfirmAvailabilityRequest;
+import com.hotel.hotelservice.dto.GroupAvailabilityRequest;
+import com.hotel.hotelservice.dto.GroupAvailabilityResponse;
+import com.hotel.hotelservice.dto.MaintenanceBlockDto;
+import com.hotel.hotelservice.dto.MaintenanceRequest;
+import com.hotel.hotelservice.dto.RoomDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Entry point for confirm-availability calls. Applies the configured concurrency mode around the
+ * transactional {@link RoomService#confirmAvailability} so that in-JVM waits and optimistic retries happen
+ * outside the transaction, before a JDBC connection is borrowed. The occupancy counter rows the locks will
+ * increment are created here too, so the locking transaction never needs a second connection for them.
+ * Retries of an already confirmed requestId are answered from the {@link IdempotencyCache} without touching the
+ * database; {@link RoomService} caches the responses from its confirming transaction once it commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AvailabilityConfirmationService {
+
+    private final RoomService roomService;
+    private final RoomConcurrencyControl concurrencyControl;
+    private final IdempotencyCache idempotencyCache;
+    private final HotelOccupancyCounters occupancyCounters;
+
+    public AvailabilityResponse confirmAvailability(Long roomId, ConfirmAvailabilityRequest request) {
+        Optional<AvailabilityResponse> cached = idempotencyCache.get(request.getRequestId());
+        if (cached.isPresent()) {
+            log.info("Request {} already processed, returning cached result", request.getRequestId());
+            return cached.get().toBuilder()
+                    .message("Already confirmed (idempotent response)")
+                    .build();
+        }
+        occupancyCounters.prepare(List.of(roomId), request.getStartDate(), request.getEndDate());
+        return concurrencyControl.execute(roomId, () -> roomService.confirmAvailability(roomId, request));
+    }
+
+    /**
+     * Picks {@code rooms} free rooms of the hotel in recommendation order, then locks all of them in one
+     * transaction under the configured mode. A room taken in between fails the whole group with 409; the client
+     * retries with the same requestId and gets a fresh selection.
+     */
+    public GroupAvailabilityResponse confirmGroupAvailability(Long hotelId, GroupAvailabilityRequest request) {
+        Optional<GroupAvailabilityResponse> existing = roomService.findGroupLocks(hotelId, request);
+        if (existing.isPresent()) {
+            existing.get().getRooms().forEach(idempotencyCache::put);
+            return existing.get();
+        }
+        List<Long> roomIds = roomService.findGroupRooms(hotelId, request.getStartDate(), request.getEndDate(),
+                request.getRooms()).stream().map(RoomDto::getId).toList();
+        occupancyCounters.prepare(roomIds, request.getStartDate(), request.getEndDate());
+        return concurrencyControl.execute(roomIds,
+                () -> roomService.confirmGroupAvailability(hotelId, roomIds, request));
+    }
+
+    /**
+     * Blocks rooms for maintenance under the configured mode, taking the locks of all rooms in id order.
+     */
+    public List<MaintenanceBlockDto> blockRooms(MaintenanceRequest request) {
+        return concurrencyControl.execute(RoomService.maintenanceRoomIds(request), () -> roomService.blockRooms(request));
+    }
+
+    public int unblockRooms(MaintenanceRequest request) {
+        return concurrencyControl.execute(RoomService.maintenanceRoomIds(request), () -> roomService.unblockRooms(request));
+    }
+}
@@ -0,0 +1,349 @@
+package com.hotel.hotelservice.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.dto.CatalogImportReport;
+import com.hotel.hotelservice.dto.CatalogImportRow;
+import com.hotel.hotelservice.dto.HotelName;
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import com.hotel.hotelservice.search.HotelSearchIndex;
+import com.hotel.hotelservice.search.SearchCountCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Bulk import of hotels and rooms from CSV or NDJSON, read from the request stream row by row.
+ * Existing hotel names are loaded once up front and the room numbers of an existing hotel when it is first named,
+ * so duplicates are skipped in memory instead of with one lookup per row. New hotels and rooms get ids from their
+ * sequences in blocks and are written with JDBC batches of {@code hotel.import.batch-size} rows, each batch in its
+ * own transaction: a malformed row fails the request with 400, and the batches before it stay imported, so the
+ * same file can simply be sent again once fixed.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+
+    private static final List<String> CSV_COLUMNS = List.of("hotel", "address", "number", "available");
+
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final HotelSearchIndex searchIndex;
+    private final SearchCountCache countCache;
+    private final CatalogCache catalogCache;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public CatalogImportService(HotelRepository hotelRepository,
+                                RoomRepository roomRepository,
+                                HotelSearchIndex searchIndex,
+                                SearchCountCache countCache,
+                                CatalogCache catalogCache,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${hotel.import.batch-size:1000}") int batchSize) {
+        this.hotelRepository = hotelRepository;
+        this.roomRepository = roomRepository;
+        this.searchIndex = searchIndex;
+        this.countCache = countCache;
+        this.catalogCache = catalogCache;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * CSV with a header line naming the columns (hotel, address, number, available, in any order; only hotel is
+     * required). Fields may be double-quoted, with "" for a quote.
+     */
+    public CatalogImportReport importCsv(InputStream in) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String header = readLine(reader);
+        if (header == null) {
+            throw new IllegalArgumentException("CSV header line is required");
+        }
+        List<String> columns = parseCsvLine(header.replace("\uFEFF", ""), 1).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        if (!columns.contains("hotel") || !CSV_COLUMNS.containsAll(columns)) {
+            throw new IllegalArgumentException("CSV header must name the hotel column and only " + CSV_COLUMNS);
+        }
+        return importRows(new Iterator<>() {
+            private int lineNumber = 1;
+            private String line = nextLine();
+
+            @Override
+            public boolean hasNext() {
+                return line != null;
+            }
+
+            @Override
+            public CatalogImportRow next() {
+                if (line == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> fields = parseCsvLine(line, lineNumber);
+                if (fields.size() != columns.size()) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": expected " + columns.size()
+                            + " fields, found " + fields.size());
+                }
+                CatalogImportRow row = new CatalogImportRow();
+                for (int i = 0; i < columns.size(); i++) {
+                    String value = fields.get(i).isBlank() ? null : fields.get(i);
+                    switch (columns.get(i)) {
+                        case "hotel" -> row.setHotel(value);
+                        case "address" -> row.setAddress(value);
+                        case "number" -> row.setNumber(value);
+                        default -> row.setAvailable(value == null ? null : parseBoolean(value, lineNumber));
+                    }
+                }
+                line = nextLine();
+                return row;
+            }
+
+            private String nextLine() {
+                String next;
+                do {
+                    next = readLine(reader);
+                    lineNumber++;
+                } while (next != null && next.isBlank());
+                return next;
+            }
+        });
+    }
+
+    /**
+     * One JSON object per line with the fields of {@link CatalogImportRow}.
+     */
+    public CatalogImportReport importNdjson(InputStream in) {
+        MappingIterator<CatalogImportRow> rows;
+        try {
+            rows = objectMapper.readerFor(CatalogImportRow.class).readValues(in);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unreadable NDJSON: " + e.getMessage(), e);
+        }
+        return importRows(new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return rows.hasNextValue();
+                } catch (IOException e) {
+                    throw new IllegalArgumentException("Line " + line() + ": " + e.getMessage(), e);
+                }
+            }
+
+            @Override
+            public CatalogImportRow next() {
+                try {
+                    return rows.next();
+                } catch (RuntimeJsonMappingException e) {
+                    throw new IllegalArgumentException("Line " + line() + ": " + e.getMessage(), e);
+                }
+            }
+
+            private int line() {
+                return rows.getCurrentLocation().getLineNr();
+            }
+        });
+    }
+
+    private CatalogImportReport importRows(Iterator<CatalogImportRow> rows) {
+        long startedAt = System.nanoTime();
+        ImportRun run = new ImportRun();
+        long rowNumber = 0;
+        while (rows.hasNext()) {
+            CatalogImportRow row = rows.next();
+            rowNumber++;
+            run.add(row, rowNumber);
+            if (run.pendingRows() >= batchSize) {
+                run.flush();
+            }
+        }
+        run.flush();
+
+        long elapsedNanos = Math.max(1, System.nanoTime() - startedAt);
+        CatalogImportReport report = CatalogImportReport.builder()
+                .rows(rowNumber)
+                .hotelsCreated(run.hotelsCreated)
+                .roomsCreated(run.roomsCreated)
+                .duplicatesSkipped(run.duplicatesSkipped)
+                .batches(run.batches)
+                .elapsedMillis(elapsedNanos / 1_000_000)
+                .rowsPerSecond(rowNumber * 1_000_000_000 / elapsedNanos)
+                .build();
+        log.info("Catalog import: {} rows, {} hotels and {} rooms created, {} duplicates skipped, {} batches, {} rows/s",
+                report.getRows(), report.getHotelsCreated(), report.getRoomsCreated(), report.getDuplicatesSkipped(),
+                report.getBatches(), report.getRowsPerSecond());
+        return report;
+    }
+
+    /**
+     * Dedup state and the rows not written yet. Hotels are keyed by name, like the uniqueness check of createHotel.
+     */
+    private final class ImportRun {
+
+        private final Map<String, Hotel> hotels = new HashMap<>();
+        private final Map<String, Set<String>> roomNumbers = new HashMap<>();
+        private final List<Hotel> pendingHotels = new ArrayList<>();
+        private final List<Room> pendingRooms = new ArrayList<>();
+        private long hotelsCreated;
+        private long roomsCreated;
+        private long duplicatesSkipped;
+        private long batches;
+
+        ImportRun() {
+            for (HotelName hotel : hotelRepository.findAllNames()) {
+                hotels.put(hotel.name(), Hotel.builder().id(hotel.id()).name(hotel.name()).build());
+            }
+        }
+
+        void add(CatalogImportRow row, long rowNumber) {
+            String name = trimToNull(row.getHotel());
+            String number = trimToNull(row.getNumber());
+            String address = trimToNull(row.getAddress());
+            if (name == null || name.length() < 2 || name.length() > 255) {
+                throw new IllegalArgumentException("Row " + rowNumber + ": hotel name must be between 2 and 255 characters");
+            }
+            if (address != null && address.length() > 500) {
+                throw new IllegalArgumentException("Row " + rowNumber + ": address must not exceed 500 characters");
+            }
+            if (number != null && number.length() > 50) {
+                throw new IllegalArgumentException("Row " + rowNumber + ": room number must not exceed 50 characters");
+            }
+
+            Hotel hotel = hotels.get(name);
+            boolean created = hotel == null;
+            if (created) {
+                hotel = Hotel.builder().name(name).address(address).build();
+                hotels.put(name, hotel);
+                roomNumbers.put(name, new HashSet<>());
+                pendingHotels.add(hotel);
+                hotelsCreated++;
+            }
+            if (number == null) {
+                if (!created) {
+                    duplicatesSkipped++;
+                }
+                return;
+            }
+            Long hotelId = hotel.getId();
+            Set<String> numbers = roomNumbers.computeIfAbsent(name,
+                    key -> new HashSet<>(roomRepository.findNumbersByHotelId(hotelId)));
+            if (!numbers.add(number)) {
+                duplicatesSkipped++;
+                return;
+            }
+            pendingRooms.add(Room.builder()
+                    .hotel(hotel)
+                    .number(number)
+                    .available(row.getAvailable() == null || row.getAvailable())
+                    .build());
+            roomsCreated++;
+        }
+
+        int pendingRows() {
+            return pendingHotels.size() + pendingRooms.size();
+        }
+
+        void flush() {
+            if (pendingRows() == 0) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                hotelRepository.insertAll(pendingHotels);
+                roomRepository.insertAll(pendingRooms);
+
+                Set<Long> newHotelIds = new HashSet<>();
+                for (Hotel hotel : pendingHotels) {
+                    newHotelIds.add(hotel.getId());
+                    searchIndex.put(hotel.getId(), hotel.getName(), hotel.getAddress());
+                }
+                // hotels created in an earlier batch or before the import: their room lists and ETags change
+                Set<Long> grownHotelIds = new TreeSet<>();
+                for (Room room : pendingRooms) {
+                    if (!newHotelIds.contains(room.getHotel().getId())) {
+                        grownHotelIds.add(room.getHotel().getId());
+                    }
+                }
+                if (!grownHotelIds.isEmpty()) {
+                    hotelRepository.incrementRoomsVersion(grownHotelIds);
+                    grownHotelIds.forEach(catalogCache::evictHotel);
+                }
+                countCache.invalidateAll();
+            });
+            pendingHotels.clear();
+            pendingRooms.clear();
+            batches++;
+        }
+    }
+
+    /**
+     * Splits one CSV record. Quoted fields may contain commas and "" for a quote, but not line breaks.
+     */
+    static List<String> parseCsvLine(String line, int lineNumber) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c != '\r') {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static boolean parseBoolean(String value, int lineNumber) {
+        return switch (value.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "1" -> true;
+            case "false", "no", "0" -> false;
+            default -> throw new IllegalArgumentException("Line " + lineNumber + ": available must be true or false");
+        };
+    }
+
+    private static String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String trimToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
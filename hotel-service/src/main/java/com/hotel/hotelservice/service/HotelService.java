@@ -1,19 +1,41 @@
 package com.hotel.hotelservice.service;
 
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.catalog.ResponseBytesCache;
 import com.hotel.hotelservice.dto.*;
 import com.hotel.hotelservice.entity.Hotel;
 import com.hotel.hotelservice.exception.DuplicateResourceException;
 import com.hotel.hotelservice.exception.ResourceNotFoundException;
 import com.hotel.hotelservice.mapper.HotelMapper;
+import com.hotel.hotelservice.repository.HotelDayOccupancyRepository;
 import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.search.HotelSearchIndex;
+import com.hotel.hotelservice.search.SearchCountCache;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,32 +43,241 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class HotelService {
 
+    private static final int STREAM_CHUNK_SIZE = 500;
+    private static final int FREE_ROOMS_CHUNK_SIZE = 500;
+
     private final HotelRepository hotelRepository;
+    private final HotelDayOccupancyRepository occupancyRepository;
+    private final RoomService roomService;
     private final HotelMapper hotelMapper;
+    private final HotelSearchIndex searchIndex;
+    private final SearchCountCache countCache;
+    private final CatalogCache catalogCache;
+    private final ResponseBytesCache responseCache;
+    private final EntityManager entityManager;
 
     public List<HotelDto> getAllHotels() {
         log.debug("Fetching all hotels");
         List<Hotel> hotels = hotelRepository.findAll();
-        return hotelMapper.toDtoList(hotels);
+        Map<Long, HotelRoomCounts> counts = hotelRepository.findAllRoomCounts().stream()
+                .collect(Collectors.toMap(HotelRoomCounts::hotelId, Function.identity()));
+        return hotels.stream()
+                .map(hotel -> hotelMapper.toDto(hotel, counts.get(hotel.getId())))
+                .toList();
+    }
+
+    /**
+     * Passes every hotel to {@code sink} while reading them from a cursor. Room counters are fetched for chunks of
+     * {@value #STREAM_CHUNK_SIZE} hotels, which are then detached, so memory use does not grow with the catalog.
+     */
+    public void streamAllHotels(Consumer<HotelDto> sink) {
+        log.debug("Streaming all hotels");
+        try (Stream<Hotel> hotels = hotelRepository.streamAllBy()) {
+            List<Hotel> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            Iterator<Hotel> iterator = hotels.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE || !iterator.hasNext()) {
+                    Map<Long, HotelRoomCounts> counts = roomCounts(chunk);
+                    for (Hotel hotel : chunk) {
+                        sink.accept(hotelMapper.toDto(hotel, counts.get(hotel.getId())));
+                        entityManager.detach(hotel);
+                    }
+                    chunk.clear();
+                }
+            }
+        }
     }
 
     public Page<HotelDto> getHotels(Pageable pageable) {
         log.debug("Fetching hotels with pagination: {}", pageable);
-        return hotelRepository.findAll(pageable)
-                .map(hotelMapper::toDtoWithoutRooms);
+        return withRoomCounts(hotelRepository.findAll(pageable));
+    }
+
+    /**
+     * Like {@link #getHotels} but reads one row past the page instead of counting all hotels. The total is only
+     * added, from the count cache, if {@code withTotal} is set; the result is then a {@link Page}.
+     */
+    public Slice<HotelDto> getHotelsSlice(Pageable pageable, boolean withTotal) {
+        log.debug("Fetching hotels slice: {} (withTotal={})", pageable, withTotal);
+        Slice<HotelDto> slice = withRoomCounts(hotelRepository.findAllBy(pageable));
+        return withTotal ? withTotal(slice, countCache.count("", hotelRepository::count)) : slice;
     }
 
     public Page<HotelDto> searchHotels(String search, Pageable pageable) {
         log.debug("Searching hotels with term: {}", search);
-        return hotelRepository.searchByNameOrAddress(search, pageable)
-                .map(hotelMapper::toDtoWithoutRooms);
+        Optional<List<Long>> ranked = rankedBySearchIndex(search, pageable);
+        if (ranked.isPresent()) {
+            return loadPage(ranked.get(), pageable);
+        }
+        Slice<HotelDto> slice = withRoomCounts(hotelRepository.searchByNameOrAddress(search, pageable));
+        return withTotal(slice, countCache.count(search, () -> hotelRepository.countByNameOrAddress(search)));
     }
 
-    public HotelDto getHotelById(Long id) {
-        log.debug("Fetching hotel by id: {}", id);
-        Hotel hotel = hotelRepository.findByIdWithRooms(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel", id));
-        return hotelMapper.toDto(hotel);
+    /**
+     * {@link #searchHotels} restricted to hotels with at least {@code rooms} rooms free on every night of
+     * {@code [startDate, endDate]}, as counted per night by the hotel occupancy counters. Not necessarily the same
+     * rooms every night: the filter is a cheap pre-check before a room search for the stay. Totals are not cached
+     * because availability changes with every booking; with the search index they are only exact on the last page.
+     */
+    public Page<HotelDto> searchHotelsWithFreeRooms(String search, LocalDate startDate, LocalDate endDate, int rooms,
+                                                    Pageable pageable) {
+        log.debug("Searching hotels with term: {} and {} free rooms for dates: {} - {}",
+                search, rooms, startDate, endDate);
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        if (rooms < 1) {
+            throw new IllegalArgumentException("Rooms must be at least 1");
+        }
+        Optional<List<Long>> ranked = rankedBySearchIndex(search, pageable);
+        if (ranked.isPresent()) {
+            return loadPage(withFreeRooms(ranked.get(), startDate, endDate, rooms, pageable), pageable);
+        }
+        Slice<HotelDto> slice = withRoomCounts(
+                hotelRepository.searchByNameOrAddressWithFreeRooms(search, startDate, endDate, rooms, pageable));
+        return withTotal(slice, hotelRepository.countByNameOrAddressWithFreeRooms(search, startDate, endDate, rooms));
+    }
+
+    /**
+     * Like {@link #searchHotels} but without the total unless {@code withTotal} is set; the result is then a
+     * {@link Page}.
+     */
+    public Slice<HotelDto> searchHotelsSlice(String search, Pageable pageable, boolean withTotal) {
+        if (withTotal) {
+            return searchHotels(search, pageable);
+        }
+        log.debug("Searching hotels slice with term: {}", search);
+        Optional<List<Long>> ranked = rankedBySearchIndex(search, pageable);
+        if (ranked.isPresent()) {
+            Page<HotelDto> page = loadPage(ranked.get(), pageable);
+            return new SliceImpl<>(page.getContent(), pageable, page.hasNext());
+        }
+        return withRoomCounts(hotelRepository.searchByNameOrAddress(search, pageable));
+    }
+
+    /**
+     * The trigram index returns its own relevance order; an explicit sort is left to the database.
+     */
+    private Optional<List<Long>> rankedBySearchIndex(String search, Pageable pageable) {
+        return pageable.getSort().isUnsorted() ? searchIndex.search(search) : Optional.empty();
+    }
+
+    /**
+     * Ranked hotel ids with free rooms, checked {@value #FREE_ROOMS_CHUNK_SIZE} at a time in rank order until the
+     * requested page and one hotel beyond it are found, so a broad term neither sends every match as one IN list
+     * nor checks hotels far past the page. The page total is therefore exact only once all matches were checked,
+     * and otherwise a lower bound that still reports the next page.
+     */
+    private List<Long> withFreeRooms(List<Long> ranked, LocalDate startDate, LocalDate endDate, int rooms,
+                                     Pageable pageable) {
+        long wanted = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() + 1 : Long.MAX_VALUE;
+        List<Long> free = new ArrayList<>();
+        for (int from = 0; from < ranked.size() && free.size() < wanted; from += FREE_ROOMS_CHUNK_SIZE) {
+            List<Long> chunk = ranked.subList(from, Math.min(ranked.size(), from + FREE_ROOMS_CHUNK_SIZE));
+            Set<Long> withFree = new HashSet<>(hotelRepository.findIdsWithFreeRooms(chunk, startDate, endDate, rooms));
+            chunk.stream().filter(withFree::contains).forEach(free::add);
+        }
+        return free;
+    }
+
+    private static Page<HotelDto> withTotal(Slice<HotelDto> slice, long total) {
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), total);
+    }
+
+    /**
+     * Batch-loads one page of ranked hotel ids, keeping the ranking order.
+     */
+    private Page<HotelDto> loadPage(List<Long> ids, Pageable pageable) {
+        List<Long> pageIds = ids;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            pageIds = ids.subList(from, Math.min(ids.size(), from + pageable.getPageSize()));
+        }
+        Map<Long, Hotel> hotels = hotelRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+        List<Hotel> content = pageIds.stream()
+                .map(hotels::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return withRoomCounts(new PageImpl<>(content, pageable, ids.size()));
+    }
+
+    /**
+     * Hotels in id order after the position encoded in {@code cursor}, or from the start if it is null.
+     * Seeks on the primary key instead of skipping rows and runs no COUNT.
+     */
+    public CursorPage<HotelDto> scrollHotels(String cursor, int size) {
+        log.debug("Scrolling hotels after cursor {}, size {}", cursor, size);
+        int pageSize = KeysetCursor.validSize(size);
+        long afterId = cursor != null ? KeysetCursor.decode(cursor, 1)[0] : 0;
+        List<Hotel> hotels = hotelRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1));
+        CursorPage<Hotel> page = KeysetCursor.page(hotels, pageSize, hotel -> KeysetCursor.encode(hotel.getId()));
+        Map<Long, HotelRoomCounts> counts = roomCounts(page.getContent());
+        return new CursorPage<>(
+                page.getContent().stream().map(hotel -> hotelMapper.toDto(hotel, counts.get(hotel.getId()))).toList(),
+                page.getNextCursor());
+    }
+
+    /**
+     * Maps a page of hotels, filling the room counters with one GROUP BY query for the whole page.
+     */
+    private Page<HotelDto> withRoomCounts(Page<Hotel> page) {
+        Map<Long, HotelRoomCounts> counts = roomCounts(page.getContent());
+        return page.map(hotel -> hotelMapper.toDto(hotel, counts.get(hotel.getId())));
+    }
+
+    private Slice<HotelDto> withRoomCounts(Slice<Hotel> slice) {
+        Map<Long, HotelRoomCounts> counts = roomCounts(slice.getContent());
+        return slice.map(hotel -> hotelMapper.toDto(hotel, counts.get(hotel.getId())));
+    }
+
+    private Map<Long, HotelRoomCounts> roomCounts(List<Hotel> hotels) {
+        if (hotels.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = hotels.stream().map(Hotel::getId).toList();
+        return hotelRepository.findRoomCountsByHotelIdIn(ids).stream()
+                .collect(Collectors.toMap(HotelRoomCounts::hotelId, Function.identity()));
+    }
+
+    /**
+     * Entity version and rooms modification counter of a hotel, read without loading the hotel.
+     */
+    public Optional<HotelVersion> getHotelVersion(Long id) {
+        return hotelRepository.findVersionById(id);
+    }
+
+    public CatalogVersion getCatalogVersion() {
+        return hotelRepository.findCatalogVersion();
+    }
+
+    /**
+     * Without rooms the hotel is served from the catalog cache.
+     *
+     * @param includeRooms whether to load and return the hotel's rooms; the counters are returned either way
+     */
+    public HotelDto getHotelById(Long id, boolean includeRooms) {
+        log.debug("Fetching hotel by id: {} (includeRooms={})", id, includeRooms);
+        if (includeRooms) {
+            Hotel hotel = hotelRepository.findByIdWithRooms(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel", id));
+            return hotelMapper.toDto(hotel);
+        }
+        return catalogCache.hotel(id, () -> {
+            Hotel hotel = hotelRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel", id));
+            return hotelMapper.toDto(hotel, roomCounts(id));
+        });
+    }
+
+    private HotelRoomCounts roomCounts(Long hotelId) {
+        return hotelRepository.findRoomCountsByHotelIdIn(List.of(hotelId)).stream()
+                .findFirst()
+                .orElse(HotelRoomCounts.empty(hotelId));
     }
 
     @Transactional
@@ -60,6 +291,8 @@ public class HotelService {
 
         Hotel hotel = hotelMapper.toEntity(request);
         hotel = hotelRepository.save(hotel);
+        searchIndex.put(hotel.getId(), hotel.getName(), hotel.getAddress());
+        countCache.invalidateAll();
 
         log.info("Hotel created successfully with id: {}", hotel.getId());
         return hotelMapper.toDto(hotel);
@@ -81,20 +314,36 @@ public class HotelService {
         hotel.setName(request.getName());
         hotel.setAddress(request.getAddress());
         hotel = hotelRepository.save(hotel);
+        searchIndex.put(hotel.getId(), hotel.getName(), hotel.getAddress());
+        countCache.invalidateAll();
+        catalogCache.evictHotel(id);
 
         log.info("Hotel updated successfully: {}", id);
-        return hotelMapper.toDto(hotel);
+        return hotelMapper.toDto(hotel, roomCounts(id));
     }
 
+    /**
+     * Deletes the hotel, its rooms, their locks and the hotel's occupancy counters with set-based statements;
+     * nothing is loaded beyond the room ids and lock request ids the in-memory state is cleared with.
+     */
     @Transactional
     public void deleteHotel(Long id) {
         log.info("Deleting hotel with id: {}", id);
 
-        if (!hotelRepository.existsById(id)) {
+        int rooms = roomService.deleteHotelRooms(id);
+        occupancyRepository.deleteByHotelId(id);
+        if (hotelRepository.deleteHotelRow(id) == 0) {
             throw new ResourceNotFoundException("Hotel", id);
         }
+        searchIndex.remove(id);
+        countCache.invalidateAll();
+        catalogCache.evictHotel(id);
+        log.info("Hotel deleted successfully: {} ({} rooms)", id, rooms);
+    }
 
-        hotelRepository.deleteById(id);
-        log.info("Hotel deleted successfully: {}", id);
+    public void flushCatalogCache() {
+        log.info("Flushing catalog cache ({} entries, {} response bytes)", catalogCache.size(), responseCache.bytes());
+        catalogCache.invalidateAll();
+        responseCache.invalidateAll();
     }
 }
@@ -0,0 +1,66 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.dto.CursorPage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Continuation tokens of the keyset listings: the sort key of the last row of a page, Base64url-encoded so
+ * clients treat it as opaque. The next page is read with a seek predicate on that key instead of an OFFSET,
+ * so every page costs the same however deep the client goes.
+ */
+final class KeysetCursor {
+
+    static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    private KeysetCursor() {
+    }
+
+    static String encode(Object... keys) {
+        String raw = Stream.of(keys).map(String::valueOf).collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode} with {@code keys} numeric keys
+     */
+    static long[] decode(String cursor, int keys) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length == keys) {
+                return Stream.of(parts).mapToLong(Long::parseLong).toArray();
+            }
+        } catch (IllegalArgumentException e) {
+            // malformed Base64 or a non-numeric key, reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    static int validSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SIZE);
+        }
+        return size;
+    }
+
+    /**
+     * Builds a page from rows read with a limit of {@code size + 1}; the extra row only tells whether there is a
+     * next page.
+     */
+    static <T> CursorPage<T> page(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> content = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)));
+    }
+}
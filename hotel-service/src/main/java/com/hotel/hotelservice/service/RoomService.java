@@ -1,5 +1,12 @@
 package com.hotel.hotelservice.service;
 
+import com.hotel.hotelservice.availability.HotelOccupancyCounters;
+import com.hotel.hotelservice.availability.IdempotencyCache;
+import com.hotel.hotelservice.availability.RoomAvailabilityIndex;
+import com.hotel.hotelservice.availability.RoomConcurrencyControl;
+import com.hotel.hotelservice.availability.RoomLockSpan;
+import com.hotel.hotelservice.availability.TimesBookedBuffer;
+import com.hotel.hotelservice.catalog.CatalogCache;
 import com.hotel.hotelservice.dto.*;
 import com.hotel.hotelservice.entity.*;
 import com.hotel.hotelservice.exception.*;
@@ -7,12 +14,36 @@ import com.hotel.hotelservice.mapper.HotelMapper;
 import com.hotel.hotelservice.repository.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -20,48 +51,361 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class RoomService {
 
+    private static final int MIN_SCAN_PAGE_SIZE = 64;
+    private static final int MAX_MATRIX_DAYS = 366;
+    private static final int MAX_GROUP_ROOMS = 100;
+    private static final int MAX_MAINTENANCE_BLOCKS = 10_000;
+
     private final RoomRepository roomRepository;
     private final RoomLockRepository roomLockRepository;
+    private final RoomNightRepository roomNightRepository;
     private final HotelRepository hotelRepository;
     private final HotelMapper hotelMapper;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomConcurrencyControl concurrencyControl;
+    private final IdempotencyCache idempotencyCache;
+    private final TimesBookedBuffer timesBookedBuffer;
+    private final CatalogCache catalogCache;
+    private final HotelOccupancyCounters occupancyCounters;
 
     public List<RoomDto> getAllRooms() {
         log.debug("Fetching all available rooms");
-        List<Room> rooms = roomRepository.findByAvailableTrue();
-        return hotelMapper.toRoomDtoList(rooms);
+        return roomRepository.findAvailableRoomDtos();
+    }
+
+    /**
+     * Passes every available room to {@code sink} while reading them from a cursor. Rows are DTO projections, so
+     * nothing accumulates in the persistence context.
+     */
+    public void streamAllRooms(Consumer<RoomDto> sink) {
+        log.debug("Streaming all available rooms");
+        try (Stream<RoomDto> rooms = roomRepository.streamAvailableRoomDtos()) {
+            rooms.forEach(sink);
+        }
     }
 
     public List<RoomDto> getRoomsByHotel(Long hotelId) {
         log.debug("Fetching rooms for hotel: {}", hotelId);
-        List<Room> rooms = roomRepository.findByHotelId(hotelId);
-        return hotelMapper.toRoomDtoList(rooms);
+        return catalogCache.hotelRooms(hotelId, () -> roomRepository.findRoomDtosByHotelId(hotelId));
+    }
+
+    /**
+     * Versions the JSON of {@link #getRoomById} depends on, read without loading the room.
+     */
+    public Optional<RoomVersion> getRoomVersion(Long id) {
+        return roomRepository.findVersionById(id);
+    }
+
+    /**
+     * Version of the hotel, whose rooms modification counter covers every change to {@link #getRoomsByHotel}.
+     */
+    public Optional<HotelVersion> getHotelRoomsVersion(Long hotelId) {
+        return hotelRepository.findVersionById(hotelId);
+    }
+
+    public CatalogVersion getCatalogVersion() {
+        return hotelRepository.findCatalogVersion();
     }
 
     public RoomDto getRoomById(Long id) {
         log.debug("Fetching room by id: {}", id);
-        Room room = roomRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Room", id));
-        return hotelMapper.toRoomDto(room);
+        return catalogCache.room(id, () -> roomRepository.findRoomDtoById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Room", id)));
     }
 
-    public List<RoomDto> getRecommendedRooms() {
-        log.debug("Fetching recommended rooms sorted by times_booked");
-        List<Room> rooms = roomRepository.findAvailableRoomsSortedByTimesBooked();
-        return hotelMapper.toRoomDtoList(rooms);
+    public List<RoomDto> getRecommendedRooms(Integer limit) {
+        log.debug("Fetching recommended rooms sorted by times_booked, limit {}", limit);
+        List<RoomDto> rooms = roomRepository.findAvailableRoomsSortedByTimesBooked(toPageable(rankedFetchLimit(limit)))
+                .getContent();
+        return toRankedDtos(rooms, limit);
     }
 
-    public List<RoomDto> getRecommendedRoomsForDates(LocalDate startDate, LocalDate endDate) {
-        log.debug("Fetching recommended rooms for dates: {} - {}", startDate, endDate);
+    public List<RoomDto> getRecommendedRoomsByHotel(Long hotelId, Integer limit) {
+        log.debug("Fetching recommended rooms for hotel {} sorted by times_booked, limit {}", hotelId, limit);
+        List<RoomDto> rooms = roomRepository.findAvailableRoomsByHotelSortedByTimesBooked(hotelId,
+                toPageable(rankedFetchLimit(limit))).getContent();
+        return toRankedDtos(rooms, limit);
+    }
+
+    public List<RoomDto> getRecommendedRoomsForDates(LocalDate startDate, LocalDate endDate, Integer limit) {
+        log.debug("Fetching recommended rooms for dates: {} - {}, limit {}", startDate, endDate, limit);
+        validateDates(startDate, endDate);
+        Integer fetch = rankedFetchLimit(limit);
+        if (availabilityIndex.coversRange(startDate, endDate)) {
+            return toRankedDtos(firstFree(roomRepository::findAvailableRoomsSortedByTimesBooked,
+                    startDate, endDate, fetch), limit);
+        }
+        List<RoomDto> rooms = concurrencyControl.usesNightStorage()
+                ? roomRepository.findAvailableRoomsForNights(startDate, endDate, toLimit(fetch))
+                : roomRepository.findAvailableRoomsForDates(startDate, endDate, toLimit(fetch));
+        return toRankedDtos(rooms, limit);
+    }
+
+    public List<RoomDto> getRecommendedRoomsForDatesByHotel(Long hotelId, LocalDate startDate, LocalDate endDate,
+                                                            Integer limit) {
+        log.debug("Fetching recommended rooms for hotel {} and dates: {} - {}, limit {}",
+                hotelId, startDate, endDate, limit);
         validateDates(startDate, endDate);
-        List<Room> rooms = roomRepository.findAvailableRoomsForDates(startDate, endDate);
-        return hotelMapper.toRoomDtoList(rooms);
+        Integer fetch = rankedFetchLimit(limit);
+        if (availabilityIndex.coversRange(startDate, endDate)) {
+            return toRankedDtos(firstFree(
+                    pageable -> roomRepository.findAvailableRoomsByHotelSortedByTimesBooked(hotelId, pageable),
+                    startDate, endDate, fetch), limit);
+        }
+        List<RoomDto> rooms = concurrencyControl.usesNightStorage()
+                ? roomRepository.findAvailableRoomsForNightsByHotel(hotelId, startDate, endDate, toLimit(fetch))
+                : roomRepository.findAvailableRoomsForDatesByHotel(hotelId, startDate, endDate, toLimit(fetch));
+        return toRankedDtos(rooms, limit);
+    }
+
+    /**
+     * {@code rooms} rooms of the hotel that are free for the whole stay, in recommendation order, read with the same
+     * single ranked query (or calendar scan) as {@link #getRecommendedRoomsForDatesByHotel}.
+     *
+     * @throws RoomNotAvailableException if fewer rooms are free
+     */
+    public List<RoomDto> findGroupRooms(Long hotelId, LocalDate startDate, LocalDate endDate, int rooms) {
+        log.debug("Searching {} rooms of hotel {} for dates: {} - {}", rooms, hotelId, startDate, endDate);
+        validateGroupSize(rooms);
+        if (!hotelRepository.existsById(hotelId)) {
+            throw new ResourceNotFoundException("Hotel", hotelId);
+        }
+        List<RoomDto> free = getRecommendedRoomsForDatesByHotel(hotelId, startDate, endDate, rooms);
+        if (free.size() < rooms) {
+            throw new RoomNotAvailableException("Only " + free.size() + " rooms of hotel " + hotelId
+                    + " are free for the requested dates");
+        }
+        return free;
+    }
+
+    /**
+     * Day-by-day occupancy of all rooms of a hotel over {@code [startDate, endDate]}.
+     */
+    public AvailabilityMatrixDto getAvailabilityMatrix(Long hotelId, LocalDate startDate, LocalDate endDate) {
+        log.debug("Building availability matrix for hotel {} and dates: {} - {}", hotelId, startDate, endDate);
+        if (startDate == null || endDate == null) {
+            throw new IllegalArgumentException("Start date and end date are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date cannot be before start date");
+        }
+        long days = endDate.toEpochDay() - startDate.toEpochDay() + 1;
+        if (days > MAX_MATRIX_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_MATRIX_DAYS + " days");
+        }
+        if (!hotelRepository.existsById(hotelId)) {
+            throw new ResourceNotFoundException("Hotel", hotelId);
+        }
+
+        List<RoomDto> rooms = getRoomsByHotel(hotelId);
+        Map<Long, BitSet> occupancy = occupancy(hotelId, rooms, startDate, endDate);
+
+        Base64.Encoder base64 = Base64.getEncoder();
+        int bytes = (int) (days + 7) / 8;
+        List<RoomOccupancyDto> rows = rooms.stream()
+                .map(room -> RoomOccupancyDto.builder()
+                        .roomId(room.getId())
+                        .number(room.getNumber())
+                        .available(room.getAvailable())
+                        .occupied(base64.encodeToString(Arrays.copyOf(occupancy.get(room.getId()).toByteArray(), bytes)))
+                        .build())
+                .toList();
+        return AvailabilityMatrixDto.builder()
+                .hotelId(hotelId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .days((int) days)
+                .rooms(rows)
+                .build();
     }
 
-    public List<RoomDto> getRecommendedRoomsForDatesByHotel(Long hotelId, LocalDate startDate, LocalDate endDate) {
-        log.debug("Fetching recommended rooms for hotel {} and dates: {} - {}", hotelId, startDate, endDate);
+    /**
+     * Stays of {@code nights} consecutive days (a stay starting on day d locks d through d + nights - 1, like
+     * room_locks) within {@code [startDate, endDate]} that at least one available room can take, optionally in one
+     * hotel. The occupancy of every room is read once, as for {@link #getAvailabilityMatrix}; each free run of a
+     * room then adds one to all window starts it covers through a difference array, so all candidate windows are
+     * counted in a single pass instead of one availability query per window.
+     */
+    public List<StayWindowDto> findStayWindows(Long hotelId, int nights, LocalDate startDate, LocalDate endDate,
+                                               StayWindowOrder order, int limit) {
+        log.debug("Searching {}-night windows for hotel {} and dates: {} - {}, {} first, limit {}",
+                nights, hotelId, startDate, endDate, order, limit);
         validateDates(startDate, endDate);
-        List<Room> rooms = roomRepository.findAvailableRoomsForDatesByHotel(hotelId, startDate, endDate);
-        return hotelMapper.toRoomDtoList(rooms);
+        validLimit(limit);
+        if (nights < 1) {
+            throw new IllegalArgumentException("Nights must be at least 1");
+        }
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1);
+        if (days > MAX_MATRIX_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_MATRIX_DAYS + " days");
+        }
+        if (nights > days) {
+            throw new IllegalArgumentException("Date range is shorter than " + nights + " nights");
+        }
+        if (hotelId != null && !hotelRepository.existsById(hotelId)) {
+            throw new ResourceNotFoundException("Hotel", hotelId);
+        }
+
+        List<RoomDto> rooms = hotelId != null
+                ? getRoomsByHotel(hotelId).stream().filter(room -> Boolean.TRUE.equals(room.getAvailable())).toList()
+                : roomRepository.findAvailableRoomDtos();
+        int windows = days - nights + 1;
+        int[] delta = new int[windows + 1];
+        for (BitSet bits : occupancy(hotelId, rooms, startDate, endDate).values()) {
+            for (int free = bits.nextClearBit(0); free < days; ) {
+                int occupied = bits.nextSetBit(free);
+                int end = occupied < 0 ? days : occupied;
+                if (end - free >= nights) {
+                    delta[free]++;
+                    delta[end - nights + 1]--;
+                }
+                if (occupied < 0) {
+                    break;
+                }
+                free = bits.nextClearBit(occupied);
+            }
+        }
+
+        List<StayWindowDto> found = new ArrayList<>();
+        int freeRooms = 0;
+        for (int start = 0; start < windows; start++) {
+            freeRooms += delta[start];
+            if (freeRooms > 0) {
+                found.add(new StayWindowDto(startDate.plusDays(start), startDate.plusDays(start + nights - 1),
+                        freeRooms));
+            }
+        }
+        Comparator<StayWindowDto> ranking = order == StayWindowOrder.LEAST_CONTENDED
+                ? Comparator.comparingInt(StayWindowDto::getFreeRooms).reversed()
+                        .thenComparing(StayWindowDto::getStartDate)
+                : Comparator.comparing(StayWindowDto::getStartDate);
+        return found.stream().sorted(ranking).limit(limit).toList();
+    }
+
+    /**
+     * One bit per day of {@code [startDate, endDate]} for each of the rooms, set if a lock covers it. Read from the
+     * in-memory index once it is loaded, otherwise from a single room_locks query over the hotel (or all hotels).
+     */
+    private Map<Long, BitSet> occupancy(Long hotelId, List<RoomDto> rooms, LocalDate startDate, LocalDate endDate) {
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay() + 1);
+        Map<Long, BitSet> occupancy = new HashMap<>();
+        rooms.forEach(room -> occupancy.put(room.getId(), new BitSet(days)));
+        if (availabilityIndex.isReady()) {
+            occupancy.forEach((roomId, bits) -> availabilityIndex.markOccupied(roomId, startDate, endDate, bits));
+            return occupancy;
+        }
+        List<RoomLockSpan> spans = hotelId != null
+                ? roomLockRepository.findHotelSpansOverlapping(hotelId, startDate, endDate)
+                : roomLockRepository.findSpansOverlapping(startDate, endDate);
+        long first = startDate.toEpochDay();
+        for (RoomLockSpan span : spans) {
+            BitSet bits = occupancy.get(span.roomId());
+            if (bits != null) {
+                bits.set((int) (Math.max(span.startDate().toEpochDay(), first) - first),
+                        (int) Math.min(span.endDate().toEpochDay() - first + 1, days));
+            }
+        }
+        return occupancy;
+    }
+
+    /**
+     * Available rooms in recommendation order {@code (timesBooked, id)} after the position encoded in
+     * {@code cursor}, optionally of one hotel. Pages seek on the stored key rather than skipping rows, so the
+     * ordering uses persisted times_booked values; changes still buffered for the next flush are not merged in.
+     */
+    public CursorPage<RoomDto> scrollAvailableRooms(Long hotelId, String cursor, int size) {
+        log.debug("Scrolling available rooms of hotel {} after cursor {}, size {}", hotelId, cursor, size);
+        int pageSize = KeysetCursor.validSize(size);
+        if (cursor == null) {
+            Pageable first = PageRequest.of(0, pageSize);
+            Slice<RoomDto> slice = hotelId != null
+                    ? roomRepository.findAvailableRoomsByHotelSortedByTimesBooked(hotelId, first)
+                    : roomRepository.findAvailableRoomsSortedByTimesBooked(first);
+            List<RoomDto> rooms = slice.getContent();
+            return new CursorPage<>(rooms, slice.hasNext() ? roomCursor(rooms.get(rooms.size() - 1)) : null);
+        }
+        long[] key = KeysetCursor.decode(cursor, 2);
+        Limit limit = Limit.of(pageSize + 1);
+        List<RoomDto> rooms = hotelId != null
+                ? roomRepository.findAvailableRoomsByHotelAfter(hotelId, (int) key[0], key[1], limit)
+                : roomRepository.findAvailableRoomsAfter((int) key[0], key[1], limit);
+        return KeysetCursor.page(rooms, pageSize, RoomService::roomCursor);
+    }
+
+    private static String roomCursor(RoomDto room) {
+        return KeysetCursor.encode(room.getTimesBooked(), room.getId());
+    }
+
+    /**
+     * Walks rooms in recommendation order and keeps the first ones whose occupancy calendar is clear for the whole
+     * range. Without a limit every available room is loaded at once; with one, rooms are read in pages a few times
+     * the limit so a top-K request on a large catalog stops after the first page or two.
+     */
+    private List<RoomDto> firstFree(Function<Pageable, Slice<RoomDto>> rooms, LocalDate startDate, LocalDate endDate,
+                                    Integer limit) {
+        int wanted = limit != null ? validLimit(limit) : Integer.MAX_VALUE;
+        Pageable page = limit != null
+                ? PageRequest.of(0, Math.max(MIN_SCAN_PAGE_SIZE, wanted * 4))
+                : Pageable.unpaged();
+        List<RoomDto> free = new ArrayList<>();
+        while (true) {
+            Slice<RoomDto> slice = rooms.apply(page);
+            for (RoomDto room : slice) {
+                if (availabilityIndex.isFree(room.getId(), startDate, endDate)) {
+                    free.add(room);
+                    if (free.size() == wanted) {
+                        return free;
+                    }
+                }
+            }
+            if (!slice.hasNext()) {
+                return free;
+            }
+            page = slice.nextPageable();
+        }
+    }
+
+    /**
+     * Rows to read for a ranked top-{@code limit}: one extra per room with a buffered increase, since each of them
+     * can drop out of the top once its pending bookings are added and let a room ranked just below move up.
+     * Buffered decreases (releases) are not over-fetched for, so a released room outside the rows read only
+     * climbs the ranking after the next flush.
+     */
+    private Integer rankedFetchLimit(Integer limit) {
+        if (limit == null) {
+            return null;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, validLimit(limit) + timesBookedBuffer.pendingIncreases());
+    }
+
+    /**
+     * Returns the first {@code limit} rooms in recommendation order, adding times_booked changes that are still
+     * buffered and re-sorting so the ranking reflects bookings confirmed since the last flush.
+     */
+    private List<RoomDto> toRankedDtos(List<RoomDto> rooms, Integer limit) {
+        List<RoomDto> dtos = rooms;
+        if (timesBookedBuffer.pendingRooms() != 0) {
+            dtos = new ArrayList<>(rooms);
+            dtos.forEach(dto -> dto.setTimesBooked((int) Math.max(0,
+                    (dto.getTimesBooked() != null ? dto.getTimesBooked() : 0) + timesBookedBuffer.pending(dto.getId()))));
+            dtos.sort(Comparator.comparing(RoomDto::getTimesBooked).thenComparing(RoomDto::getId));
+        }
+        return limit != null && dtos.size() > limit ? dtos.subList(0, limit) : dtos;
+    }
+
+    private static Pageable toPageable(Integer limit) {
+        return limit != null ? PageRequest.of(0, validLimit(limit)) : Pageable.unpaged();
+    }
+
+    private static Limit toLimit(Integer limit) {
+        return limit != null ? Limit.of(validLimit(limit)) : Limit.unlimited();
+    }
+
+    private static int validLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1");
+        }
+        return limit;
     }
 
     @Transactional
@@ -80,6 +424,8 @@ public class RoomService {
         Room room = hotelMapper.toEntity(request);
         room.setHotel(hotel);
         room = roomRepository.save(room);
+        hotelRepository.incrementRoomsVersion(List.of(hotel.getId()));
+        catalogCache.evictRoom(room.getId(), hotel.getId());
 
         log.info("Room created successfully with id: {}", room.getId());
         return hotelMapper.toRoomDto(room);
@@ -92,7 +438,10 @@ public class RoomService {
         Room room = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room", id));
 
-        if (!room.getHotel().getId().equals(request.getHotelId())) {
+        Long previousHotelId = room.getHotel().getId();
+        Long previouslyCountedIn = room.getAvailable() ? previousHotelId : null;
+        catalogCache.evictRoom(id, previousHotelId);
+        if (!previousHotelId.equals(request.getHotelId())) {
             Hotel newHotel = hotelRepository.findById(request.getHotelId())
                     .orElseThrow(() -> new ResourceNotFoundException("Hotel", request.getHotelId()));
             room.setHotel(newHotel);
@@ -108,6 +457,12 @@ public class RoomService {
         room.setNumber(request.getNumber());
         room.setAvailable(request.getAvailable() != null ? request.getAvailable() : room.getAvailable());
         room = roomRepository.save(room);
+        Long countedIn = room.getAvailable() ? room.getHotel().getId() : null;
+        if (!Objects.equals(previouslyCountedIn, countedIn)) {
+            occupancyCounters.move(previouslyCountedIn, countedIn, roomLockRepository.findSpansByRoomId(id));
+        }
+        hotelRepository.incrementRoomsVersion(List.of(previousHotelId, room.getHotel().getId()));
+        catalogCache.evictRoom(id, room.getHotel().getId());
 
         log.info("Room updated successfully: {}", id);
         return hotelMapper.toRoomDto(room);
@@ -117,15 +472,47 @@ public class RoomService {
     public void deleteRoom(Long id) {
         log.info("Deleting room with id: {}", id);
 
-        if (!roomRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Room", id);
-        }
+        Room room = roomRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Room", id));
 
-        roomLockRepository.findByRoomId(id).forEach(lock -> roomLockRepository.delete(lock));
+        List<RoomLockSpan> spans = roomLockRepository.findSpansByRoomId(id);
+        roomLockRepository.deleteAllByRoomId(id);
+        idempotencyCache.invalidateAll(spans.stream().map(RoomLockSpan::requestId).toList());
+        if (room.getAvailable()) {
+            occupancyCounters.move(room.getHotel().getId(), null, spans);
+        }
+        roomNightRepository.deleteByRoomId(id);
         roomRepository.deleteById(id);
+        availabilityIndex.removeRoom(id);
+        timesBookedBuffer.forget(id);
+        hotelRepository.incrementRoomsVersion(List.of(room.getHotel().getId()));
+        catalogCache.evictRoom(id, room.getHotel().getId());
         log.info("Room deleted successfully: {}", id);
     }
 
+    /**
+     * Deletes all rooms of a hotel with their locks and nights in a few set-based statements instead of loading
+     * them. The rooms are row-locked in id order first, so confirmations in progress on them finish before the
+     * locks are deleted. Caches and in-memory indexes drop the rooms in one step once the transaction commits;
+     * the hotel's occupancy counters are left to the caller.
+     *
+     * @return number of rooms deleted
+     */
+    @Transactional
+    public int deleteHotelRooms(Long hotelId) {
+        List<Long> roomIds = roomRepository.lockIdsByHotelId(hotelId);
+        if (roomIds.isEmpty()) {
+            return 0;
+        }
+        idempotencyCache.invalidateRooms(roomIds);
+        roomNightRepository.deleteByHotelId(hotelId);
+        roomLockRepository.deleteAllByHotelId(hotelId);
+        roomRepository.deleteAllByHotelId(hotelId);
+        availabilityIndex.removeRooms(roomIds);
+        timesBookedBuffer.forget(roomIds);
+        return roomIds.size();
+    }
+
     @Transactional
     public AvailabilityResponse confirmAvailability(Long roomId, ConfirmAvailabilityRequest request) {
         String requestId = request.getRequestId();
@@ -136,7 +523,7 @@ public class RoomService {
         if (existingLock.isPresent()) {
             log.info("Request {} already processed, returning existing result", requestId);
             RoomLock lock = existingLock.get();
-            return AvailabilityResponse.builder()
+            AvailabilityResponse response = AvailabilityResponse.builder()
                     .roomId(roomId)
                     .requestId(requestId)
                     .startDate(lock.getStartDate())
@@ -144,26 +531,44 @@ public class RoomService {
                     .confirmed(true)
                     .message("Already confirmed (idempotent response)")
                     .build();
+            idempotencyCache.put(response);
+            return response;
         }
 
         validateDates(request.getStartDate(), request.getEndDate());
 
-        Room room = roomRepository.findByIdWithLock(roomId)
+        // In STRIPED mode the caller already holds the room's in-JVM lock stripe, in OPTIMISTIC mode
+        // conflicts are detected by the version bump below and with NIGHTS storage by the room_nights key
+        Room room = (concurrencyControl.requiresRowLock()
+                ? roomRepository.findByIdWithLock(roomId)
+                : roomRepository.findById(roomId))
                 .orElseThrow(() -> new ResourceNotFoundException("Room", roomId));
 
         if (!room.getAvailable()) {
             throw new RoomNotAvailableException("Room is not operationally available");
         }
 
-        // Check for overlapping locks
-        boolean hasOverlap = roomLockRepository.existsOverlappingLock(
-                roomId, request.getStartDate(), request.getEndDate());
+        // Check for overlapping locks - the database is the authority unless room_nights keys catch overlaps or the
+        // loaded in-memory index sees every lock (STRIPED, single instance); the index is always reserved too
+        boolean hasOverlap = (requiresOverlapQuery()
+                && roomLockRepository.existsOverlappingLock(roomId, request.getStartDate(), request.getEndDate()))
+                || !availabilityIndex.tryReserve(roomId, requestId, request.getStartDate(), request.getEndDate());
 
         if (hasOverlap) {
             log.warn("Room {} is already booked for the requested dates", roomId);
             throw new RoomNotAvailableException(roomId);
         }
 
+        if (concurrencyControl.usesNightStorage()) {
+            try {
+                roomNightRepository.insertNights(roomId, requestId, request.getStartDate(), request.getEndDate());
+            } catch (DuplicateKeyException e) {
+                log.warn("Room {} already has a night locked in {} - {}", roomId,
+                        request.getStartDate(), request.getEndDate());
+                throw new RoomNotAvailableException(roomId);
+            }
+        }
+
         // Create lock
         RoomLock lock = RoomLock.builder()
                 .room(room)
@@ -175,11 +580,21 @@ public class RoomService {
                 .build();
 
         roomLockRepository.save(lock);
+        occupancyCounters.add(room.getHotel().getId(), roomId, request.getStartDate(), request.getEndDate());
+
+        // In OPTIMISTIC mode nothing has serialized us so far: bump the room version against the value we read,
+        // so that of two transactions that passed the overlap check concurrently only one can commit
+        if (concurrencyControl.requiresVersionBump()) {
+            long version = room.getVersion() != null ? room.getVersion() : 0L;
+            if (roomRepository.incrementVersion(roomId, version) == 0) {
+                throw new ObjectOptimisticLockingFailureException(Room.class, roomId);
+            }
+        }
 
         log.info("Room {} locked successfully for dates {} - {} with requestId {}",
                 roomId, request.getStartDate(), request.getEndDate(), requestId);
 
-        return AvailabilityResponse.builder()
+        AvailabilityResponse response = AvailabilityResponse.builder()
                 .roomId(roomId)
                 .requestId(requestId)
                 .startDate(request.getStartDate())
@@ -187,6 +602,395 @@ public class RoomService {
                 .confirmed(true)
                 .message("Room availability confirmed and locked")
                 .build();
+        // Cached once this transaction commits; a release that already invalidated the requestId drops the put
+        idempotencyCache.put(response);
+        return response;
+    }
+
+    /**
+     * Locks of an already confirmed group request, if any.
+     */
+    public Optional<GroupAvailabilityResponse> findGroupLocks(Long hotelId, GroupAvailabilityRequest request) {
+        validateGroupSize(request.getRooms());
+        List<String> requestIds = groupRequestIds(request);
+        List<RoomLock> locks = roomLockRepository.findByRequestIdIn(requestIds);
+        if (locks.isEmpty()) {
+            return Optional.empty();
+        }
+        log.info("Group request {} already processed, returning existing locks", request.getRequestId());
+        return Optional.of(groupResponse(hotelId, request, locks.stream()
+                .sorted(Comparator.comparingInt(lock -> requestIds.indexOf(lock.getRequestId())))
+                .map(lock -> lockResponse(lock.getRoom().getId(), lock.getRequestId(), lock.getStartDate(),
+                        lock.getEndDate(), "Already confirmed (idempotent response)"))
+                .toList(), "Already confirmed (idempotent response)"));
+    }
+
+    /**
+     * Locks all {@code roomIds} of the hotel for the same stay in one transaction, or none of them. The rooms are
+     * row-locked in id order (PESSIMISTIC), checked against the in-memory index or with one overlap query for all
+     * of them, and their locks are written with one batched insert. The lock of the i-th room gets the requestId
+     * {@code requestId-i}, under which it is confirmed or released like a single-room lock.
+     */
+    @Transactional
+    public GroupAvailabilityResponse confirmGroupAvailability(Long hotelId, List<Long> roomIds,
+                                                              GroupAvailabilityRequest request) {
+        log.info("Confirming availability of {} rooms of hotel {} with requestId: {}",
+                roomIds.size(), hotelId, request.getRequestId());
+        Optional<GroupAvailabilityResponse> existing = findGroupLocks(hotelId, request);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        validateDates(request.getStartDate(), request.getEndDate());
+        if (roomIds.size() != request.getRooms()) {
+            throw new IllegalArgumentException("Expected " + request.getRooms() + " rooms, got " + roomIds.size());
+        }
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+
+        List<Long> sortedIds = roomIds.stream().sorted().toList();
+        Map<Long, Room> rooms = new HashMap<>();
+        (concurrencyControl.requiresRowLock()
+                ? roomRepository.findAllByIdWithLock(sortedIds)
+                : roomRepository.findAllById(sortedIds)).forEach(room -> rooms.put(room.getId(), room));
+        for (Long roomId : roomIds) {
+            Room room = rooms.get(roomId);
+            if (room == null || !room.getHotel().getId().equals(hotelId)) {
+                throw new ResourceNotFoundException("Room", roomId);
+            }
+            if (!room.getAvailable()) {
+                throw new RoomNotAvailableException("Room " + roomId + " is not operationally available");
+            }
+        }
+
+        List<String> requestIds = groupRequestIds(request);
+        List<RoomLock> locks = new ArrayList<>(roomIds.size());
+        List<AvailabilityResponse> responses = new ArrayList<>(roomIds.size());
+        for (int i = 0; i < roomIds.size(); i++) {
+            locks.add(RoomLock.builder()
+                    .room(rooms.get(roomIds.get(i)))
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .requestId(requestIds.get(i))
+                    .bookingId(request.getBookingId())
+                    .confirmed(false)
+                    .build());
+            responses.add(lockResponse(roomIds.get(i), requestIds.get(i), startDate, endDate,
+                    "Room availability confirmed and locked"));
+        }
+        writeLocks(locks);
+        responses.forEach(idempotencyCache::put);
+
+        log.info("Rooms {} of hotel {} locked successfully for dates {} - {} with requestId {}",
+                roomIds, hotelId, startDate, endDate, request.getRequestId());
+        return groupResponse(hotelId, request, responses, "Availability of all rooms confirmed and locked");
+    }
+
+    /**
+     * Maintenance blocks of an already applied block request, if it carries a requestId.
+     */
+    public Optional<List<MaintenanceBlockDto>> findMaintenanceBlocks(MaintenanceRequest request) {
+        if (request.getRequestId() == null || request.getRequestId().isBlank()) {
+            return Optional.empty();
+        }
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 1; i <= blockCount(request); i++) {
+            positions.put(request.getRequestId() + "-" + i, i);
+        }
+        List<RoomLock> blocks = roomLockRepository.findByRequestIdIn(positions.keySet());
+        if (blocks.isEmpty()) {
+            return Optional.empty();
+        }
+        log.info("Maintenance request {} already processed, returning existing blocks", request.getRequestId());
+        return Optional.of(blocks.stream()
+                .sorted(Comparator.comparing(block -> positions.get(block.getRequestId())))
+                .map(block -> new MaintenanceBlockDto(block.getRoom().getId(), block.getRequestId(),
+                        block.getStartDate(), block.getEndDate()))
+                .toList());
+    }
+
+    /**
+     * Blocks every room of every window for maintenance in one transaction, or none of them: the blocks are
+     * confirmed room locks of type MAINTENANCE, checked and written exactly like a group of bookings, so a room
+     * booked or blocked on any night of its window fails the whole request with 409.
+     */
+    @Transactional
+    public List<MaintenanceBlockDto> blockRooms(MaintenanceRequest request) {
+        Optional<List<MaintenanceBlockDto>> existing = findMaintenanceBlocks(request);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        validateMaintenance(request);
+        request.getWindows().forEach(window -> validateDates(window.getStartDate(), window.getEndDate()));
+        Map<Long, Room> rooms = lockMaintenanceRooms(request);
+
+        List<RoomLock> blocks = new ArrayList<>();
+        for (MaintenanceWindow window : request.getWindows()) {
+            for (Long roomId : window.getRoomIds()) {
+                String requestId = request.getRequestId() == null || request.getRequestId().isBlank()
+                        ? "maintenance-" + UUID.randomUUID()
+                        : request.getRequestId() + "-" + (blocks.size() + 1);
+                blocks.add(RoomLock.builder()
+                        .room(rooms.get(roomId))
+                        .startDate(window.getStartDate())
+                        .endDate(window.getEndDate())
+                        .requestId(requestId)
+                        .confirmed(true)
+                        .type(LockType.MAINTENANCE)
+                        .build());
+            }
+        }
+        writeLocks(blocks);
+
+        log.info("Blocked {} rooms for maintenance in {} windows", rooms.size(), request.getWindows().size());
+        return blocks.stream()
+                .map(block -> new MaintenanceBlockDto(block.getRoom().getId(), block.getRequestId(),
+                        block.getStartDate(), block.getEndDate()))
+                .toList();
+    }
+
+    /**
+     * Frees the nights of every window from the maintenance blocks of its rooms in one transaction. Blocks that
+     * reach beyond a window are shortened, or split in two if the window lies inside them; bookings are untouched.
+     *
+     * @return number of blocks removed or shortened
+     */
+    @Transactional
+    public int unblockRooms(MaintenanceRequest request) {
+        validateMaintenance(request);
+        for (MaintenanceWindow window : request.getWindows()) {
+            if (window.getEndDate().isBefore(window.getStartDate())) {
+                throw new IllegalArgumentException("End date cannot be before start date");
+            }
+        }
+        Map<Long, Room> rooms = lockMaintenanceRooms(request);
+
+        Map<String, RoomLockSpan> blocks = new LinkedHashMap<>();
+        for (MaintenanceWindow window : request.getWindows()) {
+            roomLockRepository.findSpansOfTypeOverlapping(LockType.MAINTENANCE, window.getRoomIds(),
+                    window.getStartDate(), window.getEndDate()).forEach(span -> blocks.put(span.requestId(), span));
+        }
+        if (blocks.isEmpty()) {
+            return 0;
+        }
+
+        List<RoomLock> remainders = new ArrayList<>();
+        for (RoomLockSpan block : blocks.values()) {
+            List<RoomLockSpan> kept = List.of(block);
+            for (MaintenanceWindow window : request.getWindows()) {
+                if (window.getRoomIds().contains(block.roomId())) {
+                    kept = kept.stream().flatMap(span -> outside(span, window)).toList();
+                }
+            }
+            for (RoomLockSpan span : kept) {
+                remainders.add(RoomLock.builder()
+                        .room(rooms.get(block.roomId()))
+                        .startDate(span.startDate())
+                        .endDate(span.endDate())
+                        .requestId(span.requestId())
+                        .confirmed(true)
+                        .type(LockType.MAINTENANCE)
+                        .build());
+            }
+            availabilityIndex.replace(block.roomId(), block.requestId(), kept);
+        }
+
+        // The remainders lie within the removed blocks, so they cannot collide with other locks
+        roomNightRepository.deleteByRequestIdIn(blocks.keySet());
+        roomLockRepository.deleteByRequestIdIn(blocks.keySet());
+        occupancyCounters.removeLocks(blocks.values());
+        if (!remainders.isEmpty()) {
+            insertNights(remainders);
+            roomLockRepository.insertAll(remainders);
+            occupancyCounters.addLocks(remainders);
+        }
+
+        log.info("Unblocked {} maintenance blocks, {} shortened parts kept", blocks.size(), remainders.size());
+        return blocks.size();
+    }
+
+    /**
+     * Parts of {@code span} before and after the window, with fresh requestIds.
+     */
+    private static Stream<RoomLockSpan> outside(RoomLockSpan span, MaintenanceWindow window) {
+        if (span.endDate().isBefore(window.getStartDate()) || span.startDate().isAfter(window.getEndDate())) {
+            return Stream.of(span);
+        }
+        List<RoomLockSpan> parts = new ArrayList<>(2);
+        if (span.startDate().isBefore(window.getStartDate())) {
+            parts.add(new RoomLockSpan(span.roomId(), span.startDate(), window.getStartDate().minusDays(1),
+                    "maintenance-" + UUID.randomUUID()));
+        }
+        if (span.endDate().isAfter(window.getEndDate())) {
+            parts.add(new RoomLockSpan(span.roomId(), window.getEndDate().plusDays(1), span.endDate(),
+                    "maintenance-" + UUID.randomUUID()));
+        }
+        return parts.stream();
+    }
+
+    /**
+     * Loads the rooms of all windows, row-locked in id order in PESSIMISTIC mode.
+     */
+    private Map<Long, Room> lockMaintenanceRooms(MaintenanceRequest request) {
+        List<Long> sortedIds = maintenanceRoomIds(request).stream().sorted().toList();
+        Map<Long, Room> rooms = new HashMap<>();
+        (concurrencyControl.requiresRowLock()
+                ? roomRepository.findAllByIdWithLock(sortedIds)
+                : roomRepository.findAllById(sortedIds)).forEach(room -> rooms.put(room.getId(), room));
+        for (Long roomId : sortedIds) {
+            if (!rooms.containsKey(roomId)) {
+                throw new ResourceNotFoundException("Room", roomId);
+            }
+        }
+        return rooms;
+    }
+
+    /**
+     * Distinct rooms of all windows of a maintenance request.
+     */
+    public static Set<Long> maintenanceRoomIds(MaintenanceRequest request) {
+        Set<Long> roomIds = new HashSet<>();
+        request.getWindows().forEach(window -> roomIds.addAll(window.getRoomIds()));
+        return roomIds;
+    }
+
+    private static void validateMaintenance(MaintenanceRequest request) {
+        if (blockCount(request) > MAX_MAINTENANCE_BLOCKS) {
+            throw new IllegalArgumentException("At most " + MAX_MAINTENANCE_BLOCKS + " rooms per request");
+        }
+        List<MaintenanceWindow> windows = request.getWindows();
+        for (int i = 0; i < windows.size(); i++) {
+            MaintenanceWindow window = windows.get(i);
+            if (new HashSet<>(window.getRoomIds()).size() != window.getRoomIds().size()) {
+                throw new IllegalArgumentException("A window lists the same room twice");
+            }
+            for (int j = 0; j < i; j++) {
+                MaintenanceWindow other = windows.get(j);
+                if (!window.getStartDate().isAfter(other.getEndDate())
+                        && !other.getStartDate().isAfter(window.getEndDate())
+                        && !Collections.disjoint(window.getRoomIds(), other.getRoomIds())) {
+                    throw new IllegalArgumentException("Overlapping windows list the same room");
+                }
+            }
+        }
+    }
+
+    private static int blockCount(MaintenanceRequest request) {
+        return request.getWindows().stream().mapToInt(window -> window.getRoomIds().size()).sum();
+    }
+
+    /**
+     * Checks new locks of rooms that are already loaded (and row-locked in PESSIMISTIC mode) against the existing
+     * locks, then writes them: room_nights rows in NIGHTS storage, one batched room_locks insert, the occupancy
+     * counters and, in OPTIMISTIC mode, the room versions. Fails with 409 on the first room that is taken.
+     */
+    private void writeLocks(List<RoomLock> locks) {
+        if (requiresOverlapQuery()) {
+            Map<LockedRange, List<Long>> byDates = new LinkedHashMap<>();
+            for (RoomLock lock : locks) {
+                byDates.computeIfAbsent(new LockedRange(lock.getStartDate(), lock.getEndDate()),
+                        range -> new ArrayList<>()).add(lock.getRoom().getId());
+            }
+            byDates.forEach((range, roomIds) -> {
+                List<Long> taken = roomLockRepository.findRoomIdsWithOverlappingLocks(roomIds, range.startDate(),
+                        range.endDate());
+                if (!taken.isEmpty()) {
+                    log.warn("Rooms {} are already locked in {} - {}", taken, range.startDate(), range.endDate());
+                    throw new RoomNotAvailableException(taken.get(0));
+                }
+            });
+        }
+        for (RoomLock lock : locks) {
+            Long roomId = lock.getRoom().getId();
+            if (!availabilityIndex.tryReserve(roomId, lock.getRequestId(), lock.getStartDate(), lock.getEndDate())) {
+                log.warn("Room {} is already locked in {} - {}", roomId, lock.getStartDate(), lock.getEndDate());
+                throw new RoomNotAvailableException(roomId);
+            }
+        }
+        try {
+            insertNights(locks);
+        } catch (DuplicateKeyException e) {
+            log.warn("A room already has a night locked among {} new locks", locks.size());
+            throw new RoomNotAvailableException("A requested room is no longer available, please retry");
+        }
+        roomLockRepository.insertAll(locks);
+        occupancyCounters.addLocks(locks);
+
+        if (concurrencyControl.requiresVersionBump()) {
+            Map<Long, Room> rooms = new TreeMap<>();
+            locks.forEach(lock -> rooms.put(lock.getRoom().getId(), lock.getRoom()));
+            for (Room room : rooms.values()) {
+                long version = room.getVersion() != null ? room.getVersion() : 0L;
+                if (roomRepository.incrementVersion(room.getId(), version) == 0) {
+                    throw new ObjectOptimisticLockingFailureException(Room.class, room.getId());
+                }
+            }
+        }
+    }
+
+    private void insertNights(List<RoomLock> locks) {
+        if (!concurrencyControl.usesNightStorage()) {
+            return;
+        }
+        List<Object[]> nights = new ArrayList<>();
+        for (RoomLock lock : locks) {
+            for (LocalDate night = lock.getStartDate(); !night.isAfter(lock.getEndDate()); night = night.plusDays(1)) {
+                nights.add(new Object[]{lock.getRoom().getId(), Date.valueOf(night), lock.getRequestId()});
+            }
+        }
+        roomNightRepository.insertAll(nights, nights.size());
+    }
+
+    private record LockedRange(LocalDate startDate, LocalDate endDate) {
+    }
+
+    /**
+     * Whether new locks have to be checked against room_locks: always with RANGES storage, except when the loaded
+     * availability index sees every lock because only one instance writes (STRIPED).
+     */
+    private boolean requiresOverlapQuery() {
+        return !concurrencyControl.usesNightStorage()
+                && !(availabilityIndex.isReady() && concurrencyControl.trustsAvailabilityIndex());
+    }
+
+    private static List<String> groupRequestIds(GroupAvailabilityRequest request) {
+        List<String> requestIds = new ArrayList<>(request.getRooms());
+        for (int i = 1; i <= request.getRooms(); i++) {
+            requestIds.add(request.getRequestId() + "-" + i);
+        }
+        return requestIds;
+    }
+
+    private static AvailabilityResponse lockResponse(Long roomId, String requestId, LocalDate startDate,
+                                                     LocalDate endDate, String message) {
+        return AvailabilityResponse.builder()
+                .roomId(roomId)
+                .requestId(requestId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .confirmed(true)
+                .message(message)
+                .build();
+    }
+
+    private static GroupAvailabilityResponse groupResponse(Long hotelId, GroupAvailabilityRequest request,
+                                                           List<AvailabilityResponse> rooms, String message) {
+        return GroupAvailabilityResponse.builder()
+                .hotelId(hotelId)
+                .requestId(request.getRequestId())
+                .startDate(request.getStartDate())
+                .endDate(request.getEndDate())
+                .rooms(rooms)
+                .message(message)
+                .build();
+    }
+
+    private static void validateGroupSize(Integer rooms) {
+        if (rooms == null || rooms < 1) {
+            throw new IllegalArgumentException("Rooms must be at least 1");
+        }
+        if (rooms > MAX_GROUP_ROOMS) {
+            throw new IllegalArgumentException("Rooms cannot exceed " + MAX_GROUP_ROOMS);
+        }
     }
 
     @Transactional
@@ -194,14 +998,14 @@ public class RoomService {
         log.info("Confirming booking for room {} with requestId: {}", roomId, requestId);
 
         RoomLock lock = roomLockRepository.findByRoomIdAndRequestId(roomId, requestId)
+                .filter(found -> found.getType() == LockType.BOOKING)
                 .orElseThrow(() -> new ResourceNotFoundException("Lock not found for requestId: " + requestId));
 
         lock.setConfirmed(true);
         roomLockRepository.save(lock);
 
-        Room room = lock.getRoom();
-        room.incrementTimesBooked();
-        roomRepository.save(room);
+        // Buffered and flushed in batches instead of writing the room row while confirm-availability may hold it
+        timesBookedBuffer.record(roomId, 1);
 
         log.info("Booking confirmed for room {} with requestId: {}", roomId, requestId);
     }
@@ -220,16 +1024,26 @@ public class RoomService {
 
         RoomLock lock = lockOpt.get();
 
+        // Maintenance blocks are confirmed too, but were never counted in times_booked; they are lifted by unblock
+        if (lock.getType() == LockType.MAINTENANCE) {
+            throw new IllegalArgumentException("Lock " + requestId + " of room " + roomId
+                    + " is a maintenance block, lift it with /api/rooms/maintenance/unblock");
+        }
+
         if (lock.getConfirmed()) {
             log.warn("Attempting to release a confirmed lock for room {} - this should decrement times_booked", roomId);
-            Room room = lock.getRoom();
-            if (room.getTimesBooked() > 0) {
-                room.setTimesBooked(room.getTimesBooked() - 1);
-                roomRepository.save(room);
-            }
+            timesBookedBuffer.record(roomId, -1);
         }
 
         roomLockRepository.delete(lock);
+        if (lock.getRoom().getAvailable()) {
+            occupancyCounters.remove(lock.getRoom().getHotel().getId(), roomId, lock.getStartDate(), lock.getEndDate());
+        }
+        if (concurrencyControl.usesNightStorage()) {
+            roomNightRepository.deleteByRoomIdAndRequestId(roomId, requestId);
+        }
+        availabilityIndex.release(roomId, requestId);
+        idempotencyCache.invalidate(requestId);
         log.info("Room {} released successfully for requestId: {}", roomId, requestId);
     }
 
@@ -0,0 +1,117 @@
+package com.hotel.hotelservice.support;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Map whose entries expire a fixed TTL after they were put, bounded by a total weight (the entry count unless a
+ * weigher is given). Since every entry gets the same TTL the map is kept in insertion order, a put moves the key
+ * to the tail, and expired or overflowing entries are always dropped from its head.
+ * Not thread-safe: owners synchronize on it.
+ */
+public final class ExpiringMap<K, V> {
+
+    public enum Eviction { EXPIRED, SIZE }
+
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>();
+    private final long ttlNanos;
+    private final long maxWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final Consumer<Eviction> listener;
+    private long weight;
+
+    public ExpiringMap(Duration ttl, long maxSize) {
+        this(ttl, maxSize, value -> 1, eviction -> { });
+    }
+
+    /**
+     * @param listener told about every entry dropped because it expired or the map outgrew maxWeight
+     */
+    public ExpiringMap(Duration ttl, long maxWeight, ToLongFunction<? super V> weigher, Consumer<Eviction> listener) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxWeight = Math.max(1, maxWeight);
+        this.weigher = weigher;
+        this.listener = listener;
+    }
+
+    /**
+     * Live value of the key, null if it is absent or has expired; an expired entry is dropped.
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt() >= 0) {
+            remove(key);
+            listener.accept(Eviction.EXPIRED);
+            return null;
+        }
+        return entry.value();
+    }
+
+    /**
+     * Stores the value with a fresh TTL at the tail, then drops expired and overflowing entries from the head.
+     */
+    public void put(K key, V value) {
+        long now = System.nanoTime();
+        remove(key);
+        entries.put(key, new Entry<>(value, now + ttlNanos));
+        weight += weigher.applyAsLong(value);
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (eldest.hasNext()) {
+            Entry<V> entry = eldest.next();
+            if (now - entry.expiresAt() >= 0) {
+                listener.accept(Eviction.EXPIRED);
+            } else if (weight > maxWeight) {
+                listener.accept(Eviction.SIZE);
+            } else {
+                break;
+            }
+            weight -= weigher.applyAsLong(entry.value());
+            eldest.remove();
+        }
+    }
+
+    public void remove(K key) {
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous.value());
+        }
+    }
+
+    public void removeIf(BiPredicate<? super K, ? super V> filter) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (filter.test(entry.getKey(), entry.getValue().value())) {
+                weight -= weigher.applyAsLong(entry.getValue().value());
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Total weight of the entries, expired ones not yet dropped included.
+     */
+    public long weight() {
+        return weight;
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
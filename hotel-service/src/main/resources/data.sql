@@ -1,7 +1,7 @@
 -- Seed Hotels
-INSERT INTO hotels (id, name, address) VALUES (1, 'Grand Plaza Hotel', '123 Main Street, New York, NY 10001');
-INSERT INTO hotels (id, name, address) VALUES (2, 'Seaside Resort', '456 Ocean Drive, Miami, FL 33139');
-INSERT INTO hotels (id, name, address) VALUES (3, 'Mountain Lodge', '789 Alpine Road, Denver, CO 80202');
+INSERT INTO hotels (id, name, address, version, rooms_version) VALUES (1, 'Grand Plaza Hotel', '123 Main Street, New York, NY 10001', 0, 0);
+INSERT INTO hotels (id, name, address, version, rooms_version) VALUES (2, 'Seaside Resort', '456 Ocean Drive, Miami, FL 33139', 0, 0);
+INSERT INTO hotels (id, name, address, version, rooms_version) VALUES (3, 'Mountain Lodge', '789 Alpine Road, Denver, CO 80202', 0, 0);
 
 -- Seed Rooms for Grand Plaza Hotel (ID: 1)
 INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (1, 1, '101', true, 5);
@@ -23,3 +23,7 @@ INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (12, 3,
 INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (13, 3, 'Cabin-2', true, 2);
 INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (14, 3, 'Cabin-3', true, 0);
 INSERT INTO rooms (id, hotel_id, number, available, times_booked) VALUES (15, 3, 'Suite-A', true, 3);
+
+-- Seeds use explicit ids; generated ids start above them
+ALTER SEQUENCE hotels_seq RESTART WITH 100;
+ALTER SEQUENCE rooms_seq RESTART WITH 100;
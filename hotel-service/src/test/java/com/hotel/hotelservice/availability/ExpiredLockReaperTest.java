@@ -0,0 +1,140 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.entity.RoomLock;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomNightRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "hotel.availability.reaper.enabled=false",
+        "hotel.availability.reaper.lock-ttl=10m",
+        "hotel.availability.reaper.batch-size=2"
+})
+@ActiveProfiles("test")
+class ExpiredLockReaperTest {
+
+    @Autowired
+    private ExpiredLockReaper reaper;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        roomLockRepository.deleteAll();
+        availabilityIndex.rebuild();
+        Hotel hotel = hotelRepository.save(Hotel.builder()
+                .name("Reaper Hotel " + UUID.randomUUID())
+                .address("1 Reaper Rd")
+                .build());
+        room = roomRepository.save(Room.builder()
+                .hotel(hotel)
+                .number("R-1")
+                .available(true)
+                .timesBooked(0)
+                .build());
+    }
+
+    @Test
+    void reap_ShouldDeleteOnlyExpiredUnconfirmedLocksAcrossChunks() {
+        LocalDate start = LocalDate.now().plusDays(1);
+        for (int i = 0; i < 5; i++) {
+            saveLock("expired-" + i, start.plusDays(i * 3L), false, LocalDateTime.now().minusHours(1));
+        }
+        saveLock("confirmed", start.plusDays(20), true, LocalDateTime.now().minusHours(1));
+        saveLock("fresh", start.plusDays(25), false, LocalDateTime.now());
+        availabilityIndex.rebuild();
+
+        int reaped = reaper.reap();
+
+        assertThat(reaped).isEqualTo(5);
+        assertThat(roomLockRepository.findAll())
+                .extracting(RoomLock::getRequestId)
+                .containsExactlyInAnyOrder("confirmed", "fresh");
+        assertThat(availabilityIndex.hasOverlap(room.getId(), start, start)).isFalse();
+        assertThat(availabilityIndex.hasOverlap(room.getId(), start.plusDays(20), start.plusDays(20))).isTrue();
+    }
+
+    @Test
+    void reap_WithNothingExpired_ShouldDeleteNothing() {
+        saveLock("fresh", LocalDate.now().plusDays(1), false, LocalDateTime.now());
+
+        assertThat(reaper.reap()).isZero();
+        assertThat(roomLockRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void reap_WithLockRemovedBeforeChunkTransaction_ShouldOnlyUncountLockedRows() {
+        RoomLockRepository locks = mock(RoomLockRepository.class);
+        RoomAvailabilityIndex index = mock(RoomAvailabilityIndex.class);
+        IdempotencyCache cache = mock(IdempotencyCache.class);
+        HotelOccupancyCounters counters = mock(HotelOccupancyCounters.class);
+        ExpiredLockReaper mockedReaper = new ExpiredLockReaper(locks, mock(RoomNightRepository.class), index,
+                mock(RoomConcurrencyControl.class), cache, counters, mock(PlatformTransactionManager.class),
+                true, Duration.ofMinutes(10), 10, new SimpleMeterRegistry());
+        LocalDate start = LocalDate.now().plusDays(1);
+        ExpiredRoomLock released = new ExpiredRoomLock(1L, 7L, "released", start, start.plusDays(1));
+        ExpiredRoomLock expired = new ExpiredRoomLock(2L, 7L, "expired", start.plusDays(3), start.plusDays(4));
+        when(locks.findExpiredUnconfirmedLocks(any(LocalDateTime.class), anyLong(), any(Limit.class)))
+                .thenReturn(List.of(released, expired));
+        // "released" was deleted by releaseRoom after the chunk was read
+        when(locks.lockUnconfirmedIds(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(locks.deleteUnconfirmedByIdIn(Set.of(2L))).thenReturn(1);
+
+        assertThat(mockedReaper.reap()).isEqualTo(1);
+
+        verify(counters).removeLocks(List.of(
+                new RoomLockSpan(7L, start.plusDays(3), start.plusDays(4), "expired")));
+        verify(cache).invalidate("expired");
+        verify(cache, never()).invalidate("released");
+        verify(index, never()).release(7L, "released");
+    }
+
+    private void saveLock(String requestId, LocalDate start, boolean confirmed, LocalDateTime createdAt) {
+        roomLockRepository.save(RoomLock.builder()
+                .room(room)
+                .startDate(start)
+                .endDate(start.plusDays(1))
+                .requestId(requestId)
+                .confirmed(confirmed)
+                .createdAt(createdAt)
+                .build());
+    }
+}
@@ -0,0 +1,109 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.dto.AvailabilityResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void get_ShouldReturnCachedResponseAndCountHitsAndMisses() {
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        cache.put(response("req-1"));
+
+        assertThat(cache.get("req-1")).map(AvailabilityResponse::getRoomId).contains(1L);
+        assertThat(cache.get("req-2")).isEmpty();
+        assertThat(meterRegistry.counter("hotel.rooms.idempotency.gets", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("hotel.rooms.idempotency.gets", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldEvictEldestEntriesBeyondMaxSize() {
+        IdempotencyCache cache = new IdempotencyCache(true, 2, Duration.ofMinutes(1), meterRegistry);
+        cache.put(response("req-1"));
+        cache.put(response("req-2"));
+        cache.put(response("req-3"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("req-1")).isEmpty();
+        assertThat(cache.get("req-3")).isPresent();
+        assertThat(meterRegistry.counter("hotel.rooms.idempotency.evictions", "cause", "size").count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_ShouldDropExpiredEntries() {
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ZERO, meterRegistry);
+        cache.put(response("req-1"));
+
+        assertThat(cache.get("req-1")).isEmpty();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void invalidate_OutsideTransaction_ShouldRemoveImmediately() {
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        cache.put(response("req-1"));
+
+        cache.invalidate("req-1");
+
+        assertThat(cache.get("req-1")).isEmpty();
+    }
+
+    @Test
+    void put_InsideTransaction_ShouldOnlyCacheAfterCommit() {
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.put(response("req-1"));
+            assertThat(cache.get("req-1")).isEmpty();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.get("req-1")).isPresent();
+    }
+
+    @Test
+    void put_AfterInvalidation_ShouldNotCacheTheReleasedLock() {
+        // A release committed and invalidated before the confirmation's after-commit put ran
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        cache.invalidate("req-1");
+
+        cache.put(response("req-1"));
+
+        assertThat(cache.get("req-1")).isEmpty();
+    }
+
+    @Test
+    void invalidateRooms_ShouldDropResponsesOfDeletedRoomsAndLaterPutsForThem() {
+        IdempotencyCache cache = new IdempotencyCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        cache.put(response("req-1"));
+        cache.put(response("req-2").toBuilder().roomId(2L).build());
+
+        cache.invalidateRooms(List.of(1L));
+        cache.put(response("req-3"));
+
+        assertThat(cache.get("req-1")).isEmpty();
+        assertThat(cache.get("req-3")).isEmpty();
+        assertThat(cache.get("req-2")).isPresent();
+    }
+
+    private AvailabilityResponse response(String requestId) {
+        return AvailabilityResponse.builder()
+                .roomId(1L)
+                .requestId(requestId)
+                .confirmed(true)
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.hotel.hotelservice.availability;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OccupancyBitmapTest {
+
+    @Test
+    void anySet_ShouldDetectRangesAcrossWordBoundaries() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(1000, 256);
+        bitmap.set(1060, 1070);
+
+        assertThat(bitmap.anySet(1000, 1059)).isFalse();
+        assertThat(bitmap.anySet(1000, 1060)).isTrue();
+        assertThat(bitmap.anySet(1070, 1200)).isTrue();
+        assertThat(bitmap.anySet(1071, 1255)).isFalse();
+    }
+
+    @Test
+    void anySet_ShouldScanFullWordsInLongRanges() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(0, 256);
+        bitmap.set(150, 150);
+
+        assertThat(bitmap.anySet(10, 250)).isTrue();
+        bitmap.clear(100, 200);
+        assertThat(bitmap.anySet(10, 250)).isFalse();
+    }
+
+    @Test
+    void writesOutsideWindow_ShouldBeClamped() {
+        OccupancyBitmap bitmap = new OccupancyBitmap(64, 64);
+        bitmap.set(0, 70);
+
+        assertThat(bitmap.endDay()).isEqualTo(128);
+        assertThat(bitmap.anySet(0, 63)).isFalse();
+        assertThat(bitmap.anySet(64, 64)).isTrue();
+        assertThat(bitmap.anySet(71, 500)).isFalse();
+    }
+}
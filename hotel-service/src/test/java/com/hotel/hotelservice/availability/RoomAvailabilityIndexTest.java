@@ -0,0 +1,149 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityIndexTest {
+
+    @Mock
+    private RoomLockRepository roomLockRepository;
+
+    private RoomAvailabilityIndex index;
+
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomAvailabilityIndex(roomLockRepository, true, 365);
+    }
+
+    @Test
+    void tryReserve_WithOverlappingRange_ShouldFail() {
+        assertThat(index.tryReserve(1L, "a", today.plusDays(1), today.plusDays(3))).isTrue();
+
+        // Ranges are inclusive on both ends, like the room_locks overlap query
+        assertThat(index.tryReserve(1L, "b", today.plusDays(3), today.plusDays(5))).isFalse();
+        assertThat(index.tryReserve(1L, "c", today, today.plusDays(10))).isFalse();
+        assertThat(index.tryReserve(1L, "d", today.plusDays(4), today.plusDays(5))).isTrue();
+        assertThat(index.tryReserve(2L, "e", today.plusDays(1), today.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void tryReserve_WithSameRequestId_ShouldBeIdempotent() {
+        assertThat(index.tryReserve(1L, "a", today.plusDays(1), today.plusDays(3))).isTrue();
+        assertThat(index.tryReserve(1L, "a", today.plusDays(1), today.plusDays(3))).isTrue();
+    }
+
+    @Test
+    void hasOverlap_ShouldFindLongRangeStartingWellBefore() {
+        index.tryReserve(1L, "long", today, today.plusDays(30));
+        index.tryReserve(1L, "short", today.plusDays(40), today.plusDays(41));
+
+        assertThat(index.hasOverlap(1L, today.plusDays(20), today.plusDays(21))).isTrue();
+        assertThat(index.hasOverlap(1L, today.plusDays(31), today.plusDays(39))).isFalse();
+    }
+
+    @Test
+    void release_ShouldFreeRange() {
+        index.tryReserve(1L, "a", today.plusDays(1), today.plusDays(3));
+
+        index.release(1L, "a");
+
+        assertThat(index.hasOverlap(1L, today.plusDays(1), today.plusDays(3))).isFalse();
+    }
+
+    @Test
+    void isFree_ShouldFollowReservationsAndReleases() {
+        when(roomLockRepository.findAllSpans()).thenReturn(List.of(
+                new RoomLockSpan(1L, today.plusDays(10), today.plusDays(12), "loaded")));
+        index.rebuild();
+        index.tryReserve(1L, "a", today.plusDays(60), today.plusDays(70));
+
+        assertThat(index.coversRange(today, today.plusDays(365))).isTrue();
+        assertThat(index.coversRange(today, today.plusDays(500))).isFalse();
+        assertThat(index.isFree(1L, today.plusDays(12), today.plusDays(20))).isFalse();
+        assertThat(index.isFree(1L, today.plusDays(13), today.plusDays(59))).isTrue();
+        assertThat(index.isFree(1L, today.plusDays(70), today.plusDays(80))).isFalse();
+        assertThat(index.isFree(2L, today, today.plusDays(100))).isTrue();
+
+        index.release(1L, "a");
+
+        assertThat(index.isFree(1L, today.plusDays(13), today.plusDays(100))).isTrue();
+    }
+
+    @Test
+    void markOccupied_ShouldSetDaysCoveredWithinWindow() {
+        index.tryReserve(1L, "a", today.plusDays(2), today.plusDays(4));
+        index.tryReserve(1L, "b", today.plusDays(9), today.plusDays(12));
+
+        BitSet fromToday = new BitSet();
+        index.markOccupied(1L, today, today.plusDays(9), fromToday);
+        BitSet clipped = new BitSet();
+        index.markOccupied(1L, today.plusDays(3), today.plusDays(10), clipped);
+        BitSet otherRoom = new BitSet();
+        index.markOccupied(2L, today, today.plusDays(9), otherRoom);
+
+        assertThat(fromToday.stream().boxed().toList()).containsExactly(2, 3, 4, 9);
+        assertThat(clipped.stream().boxed().toList()).containsExactly(0, 1, 6, 7);
+        assertThat(otherRoom.isEmpty()).isTrue();
+    }
+
+    @Test
+    void rebuild_ShouldKeepReservationsMadeWhileReadingLocks() {
+        when(roomLockRepository.findAllSpans()).thenAnswer(invocation -> {
+            assertThat(index.tryReserve(1L, "during", today.plusDays(1), today.plusDays(2))).isTrue();
+            return List.of(new RoomLockSpan(2L, today.plusDays(1), today.plusDays(2), "loaded"));
+        });
+
+        index.rebuild();
+
+        assertThat(index.hasOverlap(1L, today.plusDays(1), today.plusDays(1))).isTrue();
+        assertThat(index.hasOverlap(2L, today.plusDays(1), today.plusDays(1))).isTrue();
+    }
+
+    @Test
+    void rebuild_ShouldKeepReservationsOfUncommittedTransactions() {
+        when(roomLockRepository.findAllSpans()).thenReturn(List.of());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.tryReserve(1L, "in-flight", today.plusDays(1), today.plusDays(2));
+
+            index.rebuild();
+
+            assertThat(index.tryReserve(1L, "other", today.plusDays(2), today.plusDays(3))).isFalse();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rebuild_ShouldReportDriftAgainstDatabase() {
+        index.tryReserve(1L, "stale", today.plusDays(1), today.plusDays(2));
+        index.tryReserve(1L, "kept", today.plusDays(5), today.plusDays(6));
+        when(roomLockRepository.findAllSpans()).thenReturn(List.of(
+                new RoomLockSpan(1L, today.plusDays(5), today.plusDays(6), "kept"),
+                new RoomLockSpan(2L, today.plusDays(1), today.plusDays(2), "missing")));
+
+        RoomAvailabilityIndex.RebuildReport report = index.rebuild();
+
+        assertThat(report.spans()).isEqualTo(2);
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(report.stale()).isEqualTo(1);
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.hasOverlap(1L, today.plusDays(1), today.plusDays(2))).isFalse();
+        assertThat(index.hasOverlap(2L, today.plusDays(1), today.plusDays(2))).isTrue();
+    }
+}
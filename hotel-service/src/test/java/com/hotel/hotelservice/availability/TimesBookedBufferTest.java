@@ -0,0 +1,95 @@
+package com.hotel.hotelservice.availability;
+
+import com.hotel.hotelservice.catalog.CatalogCache;
+import com.hotel.hotelservice.repository.RoomRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class TimesBookedBufferTest {
+
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final CatalogCache catalogCache = mock(CatalogCache.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+    }
+
+    @Test
+    void flush_ShouldWriteNetDeltasInOneBatchAndClearThem() {
+        TimesBookedBuffer buffer = new TimesBookedBuffer(roomRepository, catalogCache, true, new SimpleMeterRegistry(), transactionManager);
+        buffer.record(1L, 1);
+        buffer.record(1L, 1);
+        buffer.record(2L, 1);
+        buffer.record(2L, -1);
+        buffer.record(3L, -1);
+
+        assertThat(buffer.pending(1L)).isEqualTo(2);
+        assertThat(buffer.flush()).isEqualTo(2);
+
+        verify(roomRepository).addTimesBooked(Map.of(1L, 2L, 3L, -1L));
+        verify(catalogCache).evictRooms(Set.of(1L, 3L));
+        verify(transactionManager).commit(any());
+        assertThat(buffer.pending(1L)).isZero();
+        assertThat(buffer.pendingRooms()).isZero();
+        assertThat(buffer.flush()).isZero();
+        verifyNoMoreInteractions(roomRepository);
+    }
+
+    @Test
+    void flush_WhenUpdateFails_ShouldKeepDeltasBuffered() {
+        TimesBookedBuffer buffer = new TimesBookedBuffer(roomRepository, catalogCache, true, new SimpleMeterRegistry(), transactionManager);
+        buffer.record(1L, 3);
+        doThrow(new IllegalStateException("db down")).when(roomRepository).addTimesBooked(anyMap());
+
+        assertThat(buffer.flush()).isZero();
+        assertThat(buffer.pending(1L)).isEqualTo(3);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void record_WithWriteBehindDisabled_ShouldUpdateImmediately() {
+        TimesBookedBuffer buffer = new TimesBookedBuffer(roomRepository, catalogCache, false, new SimpleMeterRegistry(), transactionManager);
+        buffer.record(1L, 1);
+
+        verify(roomRepository).addTimesBooked(Map.of(1L, 1L));
+        assertThat(buffer.pending(1L)).isZero();
+    }
+
+    @Test
+    void forget_InsideTransaction_ShouldOnlyDropDeltasOnCommit() {
+        TimesBookedBuffer buffer = new TimesBookedBuffer(roomRepository, catalogCache, true, new SimpleMeterRegistry(), transactionManager);
+        buffer.record(1L, 2);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            buffer.forget(1L);
+            assertThat(buffer.pending(1L)).isEqualTo(2);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertThat(buffer.pending(1L)).isEqualTo(2);
+
+            buffer.forget(1L);
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            assertThat(buffer.pending(1L)).isZero();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.hotel.hotelservice.benchmark;
+
+import com.hotel.hotelservice.HotelServiceApplication;
+import com.hotel.hotelservice.dto.HotelDto;
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.search.HotelSearchIndex;
+import com.hotel.hotelservice.service.HotelService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares /api/hotels/search served by the trigram index (index=true) against the LIKE query over the hotels
+ * table (index=false), for a selective term and for a term matching many hotels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class HotelSearchBenchmark {
+
+    private static final String[] WORDS = {"grand", "plaza", "royal", "harbour", "garden", "palace", "central",
+            "park", "river", "ocean", "mountain", "city", "view", "inn", "suites", "lodge"};
+    private static final String[] STREETS = {"Main Street", "Oak Avenue", "Pine Road", "Lake Drive", "Hill Lane"};
+
+    @Param({"true", "false"})
+    public String index;
+
+    @Param({"100000"})
+    public int hotels;
+
+    private ConfigurableApplicationContext context;
+    private HotelService hotelService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(HotelServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "hotel.search.index.enabled=" + index,
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+                        "logging.level.com.hotel.hotelservice=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        hotelService = context.getBean(HotelService.class);
+        HotelRepository hotelRepository = context.getBean(HotelRepository.class);
+
+        Random random = new Random(42);
+        List<Hotel> batch = new ArrayList<>();
+        for (int i = 0; i < hotels; i++) {
+            batch.add(Hotel.builder()
+                    .name(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i)
+                    .address(random.nextInt(1000) + " " + STREETS[random.nextInt(STREETS.length)] + ", Town " + i % 500)
+                    .build());
+            if (batch.size() == 1000) {
+                hotelRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        hotelRepository.saveAll(batch);
+        context.getBean(HotelSearchIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<HotelDto> selectiveTerm() {
+        return hotelService.searchHotels("town 123", PageRequest.of(0, 20));
+    }
+
+    @Benchmark
+    public Page<HotelDto> broadTerm() {
+        return hotelService.searchHotels("harbour", PageRequest.of(0, 20));
+    }
+}
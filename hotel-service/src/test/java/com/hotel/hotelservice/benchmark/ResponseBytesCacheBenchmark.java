@@ -0,0 +1,92 @@
+package com.hotel.hotelservice.benchmark;
+
+import com.hotel.hotelservice.HotelServiceApplication;
+import com.hotel.hotelservice.controller.HotelController;
+import com.hotel.hotelservice.controller.RoomController;
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hotel detail and room list responses served from the encoded-bytes cache (responseCache=true) with
+ * the normal controller path that maps and serializes every time (responseCache=false). The catalog cache is on
+ * in both, so the difference is what mapping and Jackson cost on a catalog cache hit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class ResponseBytesCacheBenchmark {
+
+    @Param({"true", "false"})
+    public String responseCache;
+
+    @Param({"50"})
+    public int rooms;
+
+    private ConfigurableApplicationContext context;
+    private HotelController hotelController;
+    private RoomController roomController;
+    private Long hotelId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(HotelServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "hotel.catalog.response-cache.enabled=" + responseCache,
+                        "logging.level.com.hotel.hotelservice=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        hotelController = context.getBean(HotelController.class);
+        roomController = context.getBean(RoomController.class);
+
+        Hotel hotel = context.getBean(HotelRepository.class).save(Hotel.builder()
+                .name("Benchmark Hotel")
+                .address("1 Benchmark Street")
+                .build());
+        hotelId = hotel.getId();
+        List<Room> batch = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            batch.add(Room.builder().hotel(hotel).number(String.valueOf(100 + i)).timesBooked(i % 7).build());
+        }
+        context.getBean(RoomRepository.class).saveAll(batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] hotelDetail() {
+        return hotelController.getHotelById(hotelId, false, request()).getBody();
+    }
+
+    @Benchmark
+    public byte[] hotelWithRooms() {
+        return hotelController.getHotelById(hotelId, true, request()).getBody();
+    }
+
+    @Benchmark
+    public byte[] roomsOfHotel() {
+        return roomController.getRoomsByHotel(hotelId, request()).getBody();
+    }
+
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+}
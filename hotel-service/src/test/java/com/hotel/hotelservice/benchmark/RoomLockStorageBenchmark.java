@@ -0,0 +1,110 @@
+package com.hotel.hotelservice.benchmark;
+
+import com.hotel.hotelservice.HotelServiceApplication;
+import com.hotel.hotelservice.dto.*;
+import com.hotel.hotelservice.service.AvailabilityConfirmationService;
+import com.hotel.hotelservice.service.HotelService;
+import com.hotel.hotelservice.service.RoomService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the RANGES (room_locks overlap query) and NIGHTS (room_nights primary key) lock storage models
+ * on the booking write path and on the date-range room search, against a populated lock history.
+ * The in-memory availability index is disabled so both models hit the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class RoomLockStorageBenchmark {
+
+    @Param({"RANGES", "NIGHTS"})
+    public String storage;
+
+    @Param({"200"})
+    public int rooms;
+
+    @Param({"10"})
+    public int locksPerRoom;
+
+    private ConfigurableApplicationContext context;
+    private AvailabilityConfirmationService confirmations;
+    private RoomService roomService;
+    private Long hotRoomId;
+    private LocalDate searchStart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(HotelServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "hotel.availability.storage=" + storage,
+                        "hotel.availability.index.enabled=false",
+                        "logging.level.com.hotel.hotelservice=WARN",
+                        "logging.level.org.springframework.security=WARN")
+                .run();
+        confirmations = context.getBean(AvailabilityConfirmationService.class);
+        roomService = context.getBean(RoomService.class);
+        HotelService hotelService = context.getBean(HotelService.class);
+
+        HotelDto hotel = hotelService.createHotel(CreateHotelRequest.builder()
+                .name("Benchmark Hotel " + UUID.randomUUID())
+                .address("1 Benchmark Way")
+                .build());
+        List<Long> roomIds = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            roomIds.add(roomService.createRoom(CreateRoomRequest.builder()
+                    .hotelId(hotel.getId())
+                    .number("B-" + i)
+                    .available(true)
+                    .build()).getId());
+        }
+
+        // Lock history: 2-day stays every 5 days, staggered per room
+        LocalDate base = LocalDate.now().plusDays(1);
+        for (int r = 0; r < roomIds.size(); r++) {
+            for (int l = 0; l < locksPerRoom; l++) {
+                LocalDate start = base.plusDays(l * 5L + r % 3);
+                confirmations.confirmAvailability(roomIds.get(r), ConfirmAvailabilityRequest.builder()
+                        .startDate(start)
+                        .endDate(start.plusDays(1))
+                        .requestId("seed-" + r + "-" + l)
+                        .build());
+            }
+        }
+        hotRoomId = roomIds.get(0);
+        searchStart = base.plusDays(locksPerRoom * 5L / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void confirmAndRelease() {
+        String requestId = UUID.randomUUID().toString();
+        LocalDate start = LocalDate.now().plusDays(locksPerRoom * 5L + 10);
+        confirmations.confirmAvailability(hotRoomId, ConfirmAvailabilityRequest.builder()
+                .startDate(start)
+                .endDate(start.plusDays(2))
+                .requestId(requestId)
+                .build());
+        roomService.releaseRoom(hotRoomId, ReleaseRoomRequest.builder().requestId(requestId).build());
+    }
+
+    @Benchmark
+    public List<RoomDto> searchFreeRooms() {
+        return roomService.getRecommendedRoomsForDates(searchStart, searchStart.plusDays(3), null);
+    }
+}
@@ -0,0 +1,148 @@
+package com.hotel.hotelservice.catalog;
+
+import com.hotel.hotelservice.dto.HotelDto;
+import com.hotel.hotelservice.dto.RoomDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CatalogCache cache = new CatalogCache(true, 100, Duration.ofMinutes(1), meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void room_ShouldLoadOnceAndReturnCopies() {
+        RoomDto first = cache.room(1L, () -> loadRoom(1L, 10L));
+        first.setTimesBooked(99);
+        RoomDto second = cache.room(1L, () -> loadRoom(1L, 10L));
+
+        assertThat(loads).hasValue(1);
+        assertThat(second.getTimesBooked()).isZero();
+        assertThat(meterRegistry.counter("hotel.catalog.cache.gets", "kind", "room", "result", "hit").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("hotel.catalog.cache.hit-ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void evictRoom_ShouldEvictRoomAndItsHotelOnly() {
+        cacheAll();
+
+        cache.evictRoom(1L, 10L);
+
+        assertThat(cache.size()).isEqualTo(3);
+        cacheAll();
+        assertThat(loads).hasValue(9);
+    }
+
+    @Test
+    void evictHotel_ShouldEvictHotelRoomListAndRooms() {
+        cacheAll();
+
+        cache.evictHotel(10L);
+
+        assertThat(cache.size()).isEqualTo(3);
+        cacheAll();
+        assertThat(loads).hasValue(9);
+    }
+
+    @Test
+    void evictRooms_ShouldEvictRoomsAndListsContainingThemButKeepHotels() {
+        cacheAll();
+
+        cache.evictRooms(Set.of(1L));
+
+        assertThat(cache.size()).isEqualTo(4);
+        cacheAll();
+        assertThat(loads).hasValue(8);
+    }
+
+    @Test
+    void get_ShouldNotCacheValueLoadedWhileEvicting() {
+        cache.room(1L, () -> {
+            cache.evictRoom(1L, 10L);
+            return loadRoom(1L, 10L);
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void settledSince_ShouldBeFalseFromCommitUntilEvictionHasRun() {
+        long generation = cache.generation();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictRoom(1L, 10L);
+            assertThat(cache.settledSince(generation)).isTrue();
+
+            TransactionSynchronizationUtils.triggerBeforeCommit(false);
+            assertThat(cache.settledSince(generation)).isFalse();
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(cache.settledSince(generation)).isFalse();
+        assertThat(cache.settledSince(cache.generation())).isTrue();
+    }
+
+    @Test
+    void get_ShouldReloadExpiredAndBypassDisabledCache() {
+        CatalogCache expiring = new CatalogCache(true, 100, Duration.ZERO, meterRegistry);
+        expiring.room(1L, () -> loadRoom(1L, 10L));
+        expiring.room(1L, () -> loadRoom(1L, 10L));
+
+        CatalogCache disabled = new CatalogCache(false, 100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        disabled.room(1L, () -> loadRoom(1L, 10L));
+        disabled.room(1L, () -> loadRoom(1L, 10L));
+
+        assertThat(loads).hasValue(4);
+        assertThat(disabled.size()).isZero();
+    }
+
+    @Test
+    void get_ShouldEvictEldestEntriesBeyondMaxSize() {
+        CatalogCache small = new CatalogCache(true, 2, Duration.ofMinutes(1), meterRegistry);
+        small.room(1L, () -> loadRoom(1L, 10L));
+        small.room(2L, () -> loadRoom(2L, 10L));
+        small.room(3L, () -> loadRoom(3L, 10L));
+
+        assertThat(small.size()).isEqualTo(2);
+        small.room(1L, () -> loadRoom(1L, 10L));
+        assertThat(loads).hasValue(4);
+    }
+
+    /**
+     * Two hotels with one room each, their room lists and the hotels themselves.
+     */
+    private void cacheAll() {
+        cache.hotel(10L, () -> loadHotel(10L));
+        cache.hotel(20L, () -> loadHotel(20L));
+        cache.room(1L, () -> loadRoom(1L, 10L));
+        cache.room(2L, () -> loadRoom(2L, 20L));
+        cache.hotelRooms(10L, () -> List.of(loadRoom(1L, 10L)));
+        cache.hotelRooms(20L, () -> List.of(loadRoom(2L, 20L)));
+    }
+
+    private HotelDto loadHotel(Long id) {
+        loads.incrementAndGet();
+        return HotelDto.builder().id(id).name("Hotel " + id).totalRooms(1).availableRooms(1).build();
+    }
+
+    private RoomDto loadRoom(Long id, Long hotelId) {
+        loads.incrementAndGet();
+        return new RoomDto(id, hotelId, "Hotel " + hotelId, String.valueOf(id), true, 0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.hotel.hotelservice.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.hotelservice.catalog.ResponseBytesCache.EncodedResponse;
+import com.hotel.hotelservice.dto.RoomDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseBytesCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RoomDto> rooms = List.of(
+            new RoomDto(1L, 10L, "Grand Plaza", "101", true, 3),
+            new RoomDto(2L, 10L, "Grand Plaza", "102", true, 0));
+
+    @Test
+    void encode_ShouldWriteJsonAndMatchingGzip() throws IOException {
+        ResponseBytesCache cache = cache(true, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+
+        EncodedResponse encoded = cache.encode(rooms);
+
+        assertThat(encoded.json()).isEqualTo(objectMapper.writeValueAsBytes(rooms));
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(encoded.gzip()))) {
+            assertThat(gzip.readAllBytes()).isEqualTo(encoded.json());
+        }
+    }
+
+    @Test
+    void get_ShouldReturnBytesCachedUnderTheTag() {
+        ResponseBytesCache cache = cache(false, DataSize.ofMegabytes(1), Duration.ofMinutes(1));
+        EncodedResponse encoded = cache.encode(rooms);
+
+        cache.put("\"hotel-rooms-10-0-1\"", encoded);
+
+        assertThat(encoded.gzip()).isNull();
+        assertThat(cache.get("\"hotel-rooms-10-0-1\"")).containsSame(encoded);
+        assertThat(cache.get("\"hotel-rooms-10-0-2\"")).isEmpty();
+        assertThat(cache.bytes()).isEqualTo(encoded.json().length);
+        assertThat(meterRegistry.counter("hotel.catalog.response-cache.gets", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void put_ShouldDropEldestBodiesBeyondByteBudgetAndExpiredOnes() {
+        int size = objectMapper.valueToTree(rooms).toString().length();
+        ResponseBytesCache cache = cache(false, DataSize.ofBytes(2L * size), Duration.ofMinutes(1));
+        cache.put("a", cache.encode(rooms));
+        cache.put("b", cache.encode(rooms));
+        cache.put("c", cache.encode(rooms));
+
+        assertThat(cache.get("a")).isEmpty();
+        assertThat(cache.get("c")).isPresent();
+        assertThat(cache.bytes()).isEqualTo(2L * size);
+
+        ResponseBytesCache expiring = cache(false, DataSize.ofMegabytes(1), Duration.ZERO);
+        expiring.put("a", expiring.encode(rooms));
+        assertThat(expiring.get("a")).isEmpty();
+    }
+
+    private ResponseBytesCache cache(boolean gzip, DataSize maxBytes, Duration ttl) {
+        return new ResponseBytesCache(objectMapper, true, gzip, maxBytes, ttl, meterRegistry);
+    }
+}
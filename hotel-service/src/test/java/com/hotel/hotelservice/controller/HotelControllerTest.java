@@ -1,8 +1,11 @@
 package com.hotel.hotelservice.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.hotelservice.dto.CatalogVersion;
 import com.hotel.hotelservice.dto.CreateHotelRequest;
 import com.hotel.hotelservice.dto.HotelDto;
+import com.hotel.hotelservice.dto.HotelVersion;
+import com.hotel.hotelservice.dto.RoomDto;
 import com.hotel.hotelservice.service.HotelService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,11 +17,22 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -54,22 +68,123 @@ class HotelControllerTest {
     void getAllHotels_ShouldReturnHotelList() throws Exception {
         List<HotelDto> hotels = Arrays.asList(testHotel);
         when(hotelService.getAllHotels()).thenReturn(hotels);
+        when(hotelService.getCatalogVersion()).thenReturn(new CatalogVersion(1, 1, 4));
 
         mockMvc.perform(get("/api/hotels"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"hotels-1-1-4\""))
                 .andExpect(jsonPath("$[0].name").value("Test Hotel"));
     }
 
+    @Test
+    void streamAllHotels_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        HotelDto otherHotel = HotelDto.builder().id(2L).name("Other Hotel").build();
+        doAnswer(invocation -> {
+            Consumer<HotelDto> sink = invocation.getArgument(0);
+            sink.accept(testHotel);
+            sink.accept(otherHotel);
+            return null;
+        }).when(hotelService).streamAllHotels(any());
+
+        MvcResult result = mockMvc.perform(get("/api/hotels/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        List<String> lines = body.lines().toList();
+        assertThat(body).endsWith("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines.get(1), HotelDto.class).getName()).isEqualTo("Other Hotel");
+    }
+
     @Test
     void getHotelById_ShouldReturnHotel() throws Exception {
-        when(hotelService.getHotelById(1L)).thenReturn(testHotel);
+        when(hotelService.getHotelById(1L, false)).thenReturn(testHotel);
 
         mockMvc.perform(get("/api/hotels/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.name").value("Test Hotel"))
-                .andExpect(jsonPath("$.address").value("123 Test Street"));
+                .andExpect(jsonPath("$.address").value("123 Test Street"))
+                .andExpect(jsonPath("$.totalRooms").value(10));
+    }
+
+    @Test
+    void getHotelById_WithMatchingETag_ShouldReturnNotModifiedWithoutLoading() throws Exception {
+        when(hotelService.getHotelVersion(1L)).thenReturn(Optional.of(new HotelVersion(1L, 2, 5)));
+
+        mockMvc.perform(get("/api/hotels/1").header("If-None-Match", "\"hotel-1-2-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"hotel-1-2-5\""))
+                .andExpect(content().string(""));
+
+        verify(hotelService, never()).getHotelById(any(), anyBoolean());
+    }
+
+    @Test
+    void getHotelById_WithStaleETag_ShouldReturnHotelAndCurrentETag() throws Exception {
+        when(hotelService.getHotelVersion(1L)).thenReturn(Optional.of(new HotelVersion(1L, 2, 6)));
+        when(hotelService.getHotelById(1L, false)).thenReturn(testHotel);
+
+        mockMvc.perform(get("/api/hotels/1").header("If-None-Match", "\"hotel-1-2-5\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"hotel-1-2-6\""))
+                .andExpect(jsonPath("$.name").value("Test Hotel"));
+    }
+
+    @Test
+    void getHotelById_ShouldServeRepeatedRequestsFromCachedBytes() throws Exception {
+        when(hotelService.getHotelVersion(1L)).thenReturn(Optional.of(new HotelVersion(1L, 7, 3)));
+        when(hotelService.getHotelById(1L, false)).thenReturn(testHotel);
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/hotels/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("ETag", "\"hotel-1-7-3\""))
+                    .andExpect(jsonPath("$.name").value("Test Hotel"));
+        }
+        byte[] gzipped = mockMvc.perform(get("/api/hotels/1").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().string("ETag", "\"hotel-1-7-3-gz\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        verify(hotelService, times(1)).getHotelById(1L, false);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+            assertThat(objectMapper.readValue(in, HotelDto.class).getName()).isEqualTo("Test Hotel");
+        }
+    }
+
+    @Test
+    void getHotelById_ShouldValidateEachEncodingAgainstItsOwnETag() throws Exception {
+        when(hotelService.getHotelVersion(1L)).thenReturn(Optional.of(new HotelVersion(1L, 8, 3)));
+        when(hotelService.getHotelById(1L, false)).thenReturn(testHotel);
+
+        mockMvc.perform(get("/api/hotels/1").header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", "\"hotel-1-8-3-gz\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"hotel-1-8-3-gz\""))
+                .andExpect(header().string("Vary", "Accept-Encoding"));
+        mockMvc.perform(get("/api/hotels/1").header("If-None-Match", "\"hotel-1-8-3-gz\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"hotel-1-8-3\""))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andExpect(header().doesNotExist("Content-Encoding"));
+    }
+
+    @Test
+    void getHotelById_WithIncludeRooms_ShouldRequestRooms() throws Exception {
+        testHotel.setRooms(List.of(RoomDto.builder().id(5L).number("101").build()));
+        when(hotelService.getHotelById(1L, true)).thenReturn(testHotel);
+
+        mockMvc.perform(get("/api/hotels/1").param("includeRooms", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rooms[0].number").value("101"));
     }
 
     @Test
@@ -136,4 +251,22 @@ class HotelControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void flushCatalogCache_AsAdmin_ShouldReturnNoContent() throws Exception {
+        mockMvc.perform(delete("/api/hotels/cache"))
+                .andExpect(status().isNoContent());
+
+        verify(hotelService).flushCatalogCache();
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void flushCatalogCache_AsUser_ShouldReturnForbidden() throws Exception {
+        mockMvc.perform(delete("/api/hotels/cache"))
+                .andExpect(status().isForbidden());
+
+        verify(hotelService, never()).flushCatalogCache();
+    }
 }
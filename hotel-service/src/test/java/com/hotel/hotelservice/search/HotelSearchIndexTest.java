@@ -0,0 +1,69 @@
+package com.hotel.hotelservice.search;
+
+import com.hotel.hotelservice.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HotelSearchIndexTest {
+
+    private final HotelRepository hotelRepository = mock(HotelRepository.class);
+    private HotelSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        when(hotelRepository.findAllSearchEntries()).thenReturn(List.of(
+                new HotelSearchEntry(1L, "Grand Plaza Hotel", "1 Main Street, Springfield"),
+                new HotelSearchEntry(2L, "Seaside Resort", "5 Grand Avenue, Shelbyville"),
+                new HotelSearchEntry(3L, "Grand Hotel", "12 Ocean Drive"),
+                new HotelSearchEntry(4L, "Mountain Lodge", "Pine Road")));
+        index = new HotelSearchIndex(hotelRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void search_ShouldRankNamePrefixThenNameThenAddressMatches() {
+        assertThat(index.search("GRAND")).contains(List.of(3L, 1L, 2L));
+        assertThat(index.search("hotel")).contains(List.of(3L, 1L));
+        assertThat(index.search("springfield")).contains(List.of(1L));
+    }
+
+    @Test
+    void search_ShouldVerifyCandidatesAgainstText() {
+        // both trigrams of "tata" occur in "Tat Atanas", the term itself does not
+        index.put(5L, "Tat Atanas", "");
+
+        assertThat(index.search("tata")).contains(List.of());
+        assertThat(index.search("tat ata")).contains(List.of(5L));
+        assertThat(index.search("nowhere")).contains(List.of());
+    }
+
+    @Test
+    void search_WithShortQuery_ShouldDeferToDatabase() {
+        assertThat(index.search("gr")).isEmpty();
+    }
+
+    @Test
+    void putAndRemove_ShouldKeepIndexCurrent() {
+        index.put(3L, "Harbour View", "12 Ocean Drive");
+        index.put(5L, "Grandview Inn", "7 Hill Street");
+        index.remove(1L);
+
+        assertThat(index.search("grand")).contains(List.of(5L, 2L));
+        assertThat(index.search("harbour")).contains(List.of(3L));
+        assertThat(index.size()).isEqualTo(4);
+    }
+
+    @Test
+    void disabledIndex_ShouldNotAnswer() {
+        HotelSearchIndex disabled = new HotelSearchIndex(hotelRepository, false);
+        disabled.onApplicationReady();
+
+        assertThat(disabled.search("grand")).isEmpty();
+    }
+}
@@ -0,0 +1,71 @@
+package com.hotel.hotelservice.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SearchCountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger counts = new AtomicInteger();
+
+    @Test
+    void count_ShouldCountOncePerTermIgnoringCase() {
+        SearchCountCache cache = new SearchCountCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+
+        assertThat(cache.count("Grand", this::countHotels)).isEqualTo(42);
+        assertThat(cache.count("grand", this::countHotels)).isEqualTo(42);
+        assertThat(cache.count("plaza", this::countHotels)).isEqualTo(42);
+
+        assertThat(counts).hasValue(2);
+        assertThat(meterRegistry.counter("hotel.search.count-cache.gets", "result", "hit").count()).isEqualTo(1);
+    }
+
+    @Test
+    void count_ShouldRecountExpiredAndInvalidatedTotals() {
+        SearchCountCache expiring = new SearchCountCache(true, 10, Duration.ZERO, meterRegistry);
+        expiring.count("grand", this::countHotels);
+        expiring.count("grand", this::countHotels);
+        assertThat(counts).hasValue(2);
+
+        SearchCountCache cache = new SearchCountCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+        cache.count("grand", this::countHotels);
+        cache.invalidateAll();
+        cache.count("grand", this::countHotels);
+        assertThat(counts).hasValue(4);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void count_ShouldNotCacheTotalCountedWhileInvalidating() {
+        SearchCountCache cache = new SearchCountCache(true, 10, Duration.ofMinutes(1), meterRegistry);
+
+        cache.count("grand", () -> {
+            cache.invalidateAll();
+            return countHotels();
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void count_ShouldEvictEldestTermsBeyondMaxSize() {
+        SearchCountCache cache = new SearchCountCache(true, 2, Duration.ofMinutes(1), meterRegistry);
+        cache.count("a", this::countHotels);
+        cache.count("b", this::countHotels);
+        cache.count("c", this::countHotels);
+
+        assertThat(cache.size()).isEqualTo(2);
+        cache.count("a", this::countHotels);
+        assertThat(counts).hasValue(4);
+    }
+
+    private long countHotels() {
+        counts.incrementAndGet();
+        return 42;
+    }
+}
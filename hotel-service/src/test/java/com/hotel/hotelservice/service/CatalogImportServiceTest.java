@@ -0,0 +1,113 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.dto.CatalogImportReport;
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "hotel.import.batch-size=2")
+@ActiveProfiles("test")
+class CatalogImportServiceTest {
+
+    @Autowired
+    private CatalogImportService importService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        prefix = "Import-" + UUID.randomUUID().toString().substring(0, 8) + " ";
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotelRepository.deleteAll(hotelRepository.findAll().stream()
+                .filter(hotel -> hotel.getName().startsWith(prefix))
+                .toList());
+    }
+
+    @Test
+    void importCsv_ShouldCreateHotelsAndRoomsInBatchesAndSkipDuplicates() {
+        String csv = "hotel,address,number,available\n"
+                + prefix + "Harbour,\"1 Quay, Dock \"\"A\"\"\",101,true\n"
+                + prefix + "Harbour,,102,false\n"
+                + prefix + "Harbour,,101,\n"
+                + "\n"
+                + prefix + "Hills,2 Ridge Road,,\n"
+                + prefix + "Hills,,H1,\n";
+
+        CatalogImportReport report = importService.importCsv(stream(csv));
+
+        assertThat(report.getRows()).isEqualTo(5);
+        assertThat(report.getHotelsCreated()).isEqualTo(2);
+        assertThat(report.getRoomsCreated()).isEqualTo(3);
+        assertThat(report.getDuplicatesSkipped()).isEqualTo(1);
+        assertThat(report.getBatches()).isGreaterThan(1);
+
+        Hotel harbour = hotelRepository.findByName(prefix + "Harbour").orElseThrow();
+        assertThat(harbour.getAddress()).isEqualTo("1 Quay, Dock \"A\"");
+        assertThat(roomRepository.findByHotelId(harbour.getId()))
+                .extracting(Room::getNumber, Room::getAvailable)
+                .containsExactlyInAnyOrder(tuple("101", true), tuple("102", false));
+
+        // Ids drawn in blocks by the import and ids assigned by JPA come from the same sequence
+        Room saved = roomRepository.save(Room.builder().hotel(harbour).number("103").build());
+        assertThat(roomRepository.findByHotelId(harbour.getId())).extracting(Room::getId).doesNotHaveDuplicates()
+                .contains(saved.getId());
+    }
+
+    @Test
+    void importNdjson_ShouldSkipHotelsAndRoomsThatAlreadyExist() {
+        String ndjson = "{\"hotel\":\"" + prefix + "Lake\",\"address\":\"3 Shore\",\"number\":\"L1\"}\n"
+                + "{\"hotel\":\"" + prefix + "Lake\",\"number\":\"L2\",\"available\":false}\n";
+        importService.importNdjson(stream(ndjson));
+
+        CatalogImportReport again = importService.importNdjson(stream(ndjson
+                + "{\"hotel\":\"" + prefix + "Lake\",\"number\":\"L3\"}\n"));
+
+        assertThat(again.getHotelsCreated()).isZero();
+        assertThat(again.getRoomsCreated()).isEqualTo(1);
+        assertThat(again.getDuplicatesSkipped()).isEqualTo(2);
+        Hotel lake = hotelRepository.findByName(prefix + "Lake").orElseThrow();
+        assertThat(roomRepository.findNumbersByHotelId(lake.getId())).containsExactlyInAnyOrder("L1", "L2", "L3");
+    }
+
+    @Test
+    void importCsv_ShouldRejectMalformedRowsWithTheirLineAndKeepEarlierBatches() {
+        String csv = "hotel,number\n" + prefix + "Ok,1\n\"" + prefix + "Broken,2\n";
+
+        assertThatThrownBy(() -> importService.importCsv(stream(csv)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Line 3");
+        assertThatThrownBy(() -> importService.importCsv(stream("name,number\nx,1\n")))
+                .isInstanceOf(IllegalArgumentException.class);
+        // the batch flushed before the bad line stays imported
+        assertThat(hotelRepository.findByName(prefix + "Ok")).isPresent();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,264 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.dto.CatalogVersion;
+import com.hotel.hotelservice.dto.ConfirmAvailabilityRequest;
+import com.hotel.hotelservice.dto.CreateHotelRequest;
+import com.hotel.hotelservice.dto.CreateRoomRequest;
+import com.hotel.hotelservice.dto.CursorPage;
+import com.hotel.hotelservice.dto.HotelDto;
+import com.hotel.hotelservice.dto.HotelVersion;
+import com.hotel.hotelservice.dto.ReleaseRoomRequest;
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.exception.ResourceNotFoundException;
+import com.hotel.hotelservice.repository.HotelDayOccupancyRepository;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import com.hotel.hotelservice.search.HotelSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class HotelServiceTest {
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private HotelDayOccupancyRepository occupancyRepository;
+
+    @Autowired
+    private HotelSearchIndex searchIndex;
+
+    private Hotel hotel;
+    private Hotel emptyHotel;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        hotel = hotelRepository.save(Hotel.builder().name("Counted " + suffix).address("1 Count Street").build());
+        emptyHotel = hotelRepository.save(Hotel.builder().name("Empty " + suffix).address("2 Count Street").build());
+        room = roomRepository.save(Room.builder().hotel(hotel).number("101").build());
+        roomRepository.save(Room.builder().hotel(hotel).number("102").build());
+        roomRepository.save(Room.builder().hotel(hotel).number("103").available(false).build());
+    }
+
+    @Test
+    void getHotelById_ShouldReturnCountersWithoutRooms() {
+        HotelDto result = hotelService.getHotelById(hotel.getId(), false);
+
+        assertThat(result.getRooms()).isNull();
+        assertThat(result.getTotalRooms()).isEqualTo(3);
+        assertThat(result.getAvailableRooms()).isEqualTo(2);
+    }
+
+    @Test
+    void getHotels_ShouldFillCountersForEveryHotelOnThePage() {
+        var page = hotelService.getHotels(Pageable.unpaged()).getContent();
+
+        assertThat(page).filteredOn(h -> h.getId().equals(hotel.getId()))
+                .singleElement()
+                .satisfies(h -> {
+                    assertThat(h.getTotalRooms()).isEqualTo(3);
+                    assertThat(h.getAvailableRooms()).isEqualTo(2);
+                });
+        assertThat(page).filteredOn(h -> h.getId().equals(emptyHotel.getId()))
+                .singleElement()
+                .satisfies(h -> assertThat(h.getTotalRooms()).isZero());
+    }
+
+    @Test
+    void searchHotelsSlice_ShouldReportNextPageAndOnlyCountOnRequest() {
+        PageRequest byId = PageRequest.of(0, 1, Sort.by("id"));
+
+        Slice<HotelDto> first = hotelService.searchHotelsSlice("count street", byId, false);
+        Slice<HotelDto> last = hotelService.searchHotelsSlice("count street", byId.next(), true);
+
+        assertThat(first).isNotInstanceOf(Page.class);
+        assertThat(first.getContent()).extracting(HotelDto::getId).containsExactly(hotel.getId());
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last).isInstanceOfSatisfying(Page.class, page -> assertThat(page.getTotalElements()).isEqualTo(2));
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    void scrollHotels_ShouldVisitEveryHotelOnceInIdOrder() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<HotelDto> page = hotelService.scrollHotels(cursor, 2);
+            assertThat(page.getContent()).hasSizeLessThanOrEqualTo(2);
+            page.getContent().forEach(h -> seen.add(h.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(seen).isSorted().doesNotHaveDuplicates()
+                .contains(hotel.getId(), emptyHotel.getId())
+                .hasSize((int) hotelRepository.count());
+    }
+
+    @Test
+    void scrollHotels_WithInvalidCursor_ShouldThrowException() {
+        assertThatThrownBy(() -> hotelService.scrollHotels("not a cursor", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    @Test
+    void streamAllHotels_ShouldPassEveryHotelWithCounters() {
+        List<HotelDto> streamed = new ArrayList<>();
+
+        hotelService.streamAllHotels(streamed::add);
+
+        assertThat(streamed).hasSize((int) hotelRepository.count());
+        assertThat(streamed).filteredOn(h -> h.getId().equals(hotel.getId()))
+                .singleElement()
+                .satisfies(h -> assertThat(h.getTotalRooms()).isEqualTo(3));
+    }
+
+    @Test
+    void versions_ShouldChangeWithHotelAndRoomWrites() {
+        HotelVersion initial = hotelService.getHotelVersion(hotel.getId()).orElseThrow();
+        CatalogVersion catalog = hotelService.getCatalogVersion();
+
+        roomService.createRoom(CreateRoomRequest.builder().hotelId(hotel.getId()).number("104").available(true).build());
+        HotelVersion afterRoom = hotelService.getHotelVersion(hotel.getId()).orElseThrow();
+        roomRepository.addTimesBooked(Map.of(room.getId(), 1L));
+        HotelVersion afterFlush = hotelService.getHotelVersion(hotel.getId()).orElseThrow();
+        hotelService.updateHotel(hotel.getId(),
+                CreateHotelRequest.builder().name("Renamed " + hotel.getName()).address("1 Count Street").build());
+        HotelVersion afterRename = hotelService.getHotelVersion(hotel.getId()).orElseThrow();
+
+        assertThat(afterRoom.roomsVersion()).isGreaterThan(initial.roomsVersion());
+        assertThat(afterRoom.version()).isEqualTo(initial.version());
+        assertThat(afterFlush.roomsVersion()).isGreaterThan(afterRoom.roomsVersion());
+        assertThat(afterRename.version()).isGreaterThan(afterFlush.version());
+        assertThat(hotelService.getCatalogVersion()).isNotEqualTo(catalog);
+        assertThat(hotelService.getHotelVersion(emptyHotel.getId())).contains(
+                new HotelVersion(emptyHotel.getId(), 0, 0));
+    }
+
+    @Test
+    void addTimesBooked_WithMoreRoomsThanOneChunk_ShouldBumpEveryHotel() {
+        HotelVersion initial = hotelService.getHotelVersion(hotel.getId()).orElseThrow();
+        Map<Long, Long> deltas = new HashMap<>();
+        for (long id = 1; id <= 1200; id++) {
+            deltas.put(1_000_000 + id, 1L);
+        }
+        deltas.put(room.getId(), 1L);
+
+        roomRepository.addTimesBooked(deltas);
+
+        assertThat(hotelService.getHotelVersion(hotel.getId()).orElseThrow().roomsVersion())
+                .isGreaterThan(initial.roomsVersion());
+    }
+
+    @Test
+    void searchHotelsWithFreeRooms_ShouldFollowLocksReleasesAndRoomAvailability() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        Room other = roomRepository.findByHotelIdAndNumber(hotel.getId(), "102").orElseThrow();
+        lock(room, "a", start, start.plusDays(2));
+        lock(other, "b", start.plusDays(1), start.plusDays(1));
+        // Index the uncommitted hotel so that the ranked path can find it too
+        searchIndex.rebuild();
+
+        assertThat(freeIn(start, start.plusDays(2), 1)).isFalse();
+        assertThat(freeIn(start, start, 1)).isTrue();
+        assertThat(freeIn(start, start, 2)).isFalse();
+        assertThat(freeIn(start.plusDays(3), start.plusDays(5), 2)).isTrue();
+
+        roomService.releaseRoom(other.getId(), ReleaseRoomRequest.builder().requestId("b-" + hotel.getId()).build());
+        assertThat(freeIn(start, start.plusDays(2), 1)).isTrue();
+
+        // Out of service, its lock no longer counts against the one remaining available room
+        roomService.updateRoom(room.getId(),
+                CreateRoomRequest.builder().hotelId(hotel.getId()).number("101").available(false).build());
+        assertThat(freeIn(start, start.plusDays(2), 1)).isTrue();
+        assertThat(freeIn(start, start.plusDays(2), 2)).isFalse();
+
+        roomService.updateRoom(room.getId(),
+                CreateRoomRequest.builder().hotelId(hotel.getId()).number("101").available(true).build());
+        assertThat(freeIn(start, start.plusDays(2), 2)).isFalse();
+        assertThat(freeIn(start.plusDays(3), start.plusDays(3), 2)).isTrue();
+    }
+
+    @Test
+    void deleteHotel_ShouldRemoveRoomsLocksAndCountersWithoutLoadingThem() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        lock(room, "a", start, start.plusDays(2));
+        assertThat(occupancyRepository.findNights(hotel.getId(), start, start.plusDays(2))).hasSize(3);
+
+        hotelService.deleteHotel(hotel.getId());
+
+        assertThat(hotelRepository.existsById(hotel.getId())).isFalse();
+        assertThat(roomRepository.findNumbersByHotelId(hotel.getId())).isEmpty();
+        assertThat(roomLockRepository.findSpansByRoomId(room.getId())).isEmpty();
+        assertThat(occupancyRepository.findNights(hotel.getId(), start, start.plusDays(2))).isEmpty();
+        assertThat(hotelRepository.existsById(emptyHotel.getId())).isTrue();
+        assertThatThrownBy(() -> hotelService.deleteHotel(hotel.getId()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private void lock(Room target, String requestId, LocalDate startDate, LocalDate endDate) {
+        roomService.confirmAvailability(target.getId(), ConfirmAvailabilityRequest.builder()
+                .requestId(requestId + "-" + hotel.getId())
+                .startDate(startDate)
+                .endDate(endDate)
+                .build());
+    }
+
+    /**
+     * Whether the hotel is found, checked through both the search index and the database query.
+     */
+    private boolean freeIn(LocalDate startDate, LocalDate endDate, int rooms) {
+        boolean ranked = hotelService.searchHotelsWithFreeRooms(hotel.getName(), startDate, endDate, rooms,
+                Pageable.unpaged()).getContent().stream().anyMatch(h -> h.getId().equals(hotel.getId()));
+        boolean queried = hotelService.searchHotelsWithFreeRooms(hotel.getName(), startDate, endDate, rooms,
+                PageRequest.of(0, 10, Sort.by("name"))).getContent().stream().anyMatch(h -> h.getId().equals(hotel.getId()));
+        assertThat(queried).isEqualTo(ranked);
+        return ranked;
+    }
+
+    @Test
+    void getAllHotels_ShouldFillCounters() {
+        assertThat(hotelService.getAllHotels())
+                .filteredOn(h -> h.getId().equals(hotel.getId()))
+                .singleElement()
+                .satisfies(h -> assertThat(h.getAvailableRooms()).isEqualTo(2));
+    }
+}
@@ -0,0 +1,98 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.availability.RoomNightBackfill;
+import com.hotel.hotelservice.dto.ConfirmAvailabilityRequest;
+import com.hotel.hotelservice.dto.ReleaseRoomRequest;
+import com.hotel.hotelservice.entity.RoomLock;
+import com.hotel.hotelservice.exception.RoomNotAvailableException;
+import com.hotel.hotelservice.repository.RoomLockRepository;
+import com.hotel.hotelservice.repository.RoomNightRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Concurrent booking scenarios with the room_nights storage model, where conflicts are only detected by the
+ * (room_id, night) primary key: no row lock, no overlap query and no in-memory index.
+ */
+@SpringBootTest(properties = {
+        "hotel.availability.storage=NIGHTS",
+        "hotel.availability.index.enabled=false"
+})
+class NightStorageRoomServiceConcurrencyTest extends RoomServiceConcurrencyTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomNightRepository roomNightRepository;
+
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @Autowired
+    private RoomNightBackfill backfill;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void overlappingNight_ShouldConflictUntilReleased() {
+        LocalDate start = LocalDate.now().plusDays(10);
+        String first = "nights-" + UUID.randomUUID();
+        availabilityConfirmationService.confirmAvailability(testRoom.getId(), request(first, start, start.plusDays(2)));
+        assertThat(roomNightRepository.findAll())
+                .filteredOn(night -> night.getRoomId().equals(testRoom.getId()))
+                .hasSize(3);
+
+        assertThatThrownBy(() -> availabilityConfirmationService.confirmAvailability(testRoom.getId(),
+                request("nights-" + UUID.randomUUID(), start.plusDays(2), start.plusDays(4))))
+                .isInstanceOf(RoomNotAvailableException.class);
+        assertThat(roomService.getRecommendedRoomsForDates(start.plusDays(1), start.plusDays(1), null))
+                .noneMatch(room -> room.getId().equals(testRoom.getId()));
+
+        roomService.releaseRoom(testRoom.getId(), ReleaseRoomRequest.builder().requestId(first).build());
+
+        assertThat(roomService.getRecommendedRoomsForDates(start.plusDays(1), start.plusDays(1), null))
+                .anyMatch(room -> room.getId().equals(testRoom.getId()));
+    }
+
+    @Test
+    void backfill_WithNightTakenByExpandedLock_ShouldSkipItInsteadOfFailing() {
+        LocalDate start = LocalDate.now().plusDays(30);
+        availabilityConfirmationService.confirmAvailability(testRoom.getId(),
+                request("nights-" + UUID.randomUUID(), start, start.plusDays(2)));
+        // Written while the service still ran with RANGES storage, overlapping the last expanded night
+        roomLockRepository.save(RoomLock.builder()
+                .room(testRoom)
+                .startDate(start.plusDays(2))
+                .endDate(start.plusDays(3))
+                .requestId("ranges-" + UUID.randomUUID())
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        Integer inserted = new TransactionTemplate(transactionManager).execute(status -> backfill.backfill());
+
+        assertThat(inserted).isEqualTo(1);
+        assertThat(roomNightRepository.findAll())
+                .filteredOn(night -> night.getRoomId().equals(testRoom.getId()))
+                .hasSize(4);
+    }
+
+    private ConfirmAvailabilityRequest request(String requestId, LocalDate start, LocalDate end) {
+        return ConfirmAvailabilityRequest.builder()
+                .startDate(start)
+                .endDate(end)
+                .requestId(requestId)
+                .build();
+    }
+}
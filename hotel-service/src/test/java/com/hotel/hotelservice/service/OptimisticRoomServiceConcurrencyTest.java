@@ -0,0 +1,15 @@
+package com.hotel.hotelservice.service;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Concurrent booking scenarios with the optimistic room version check.
+ * The in-memory availability index is disabled so that overlaps are only caught by the database
+ * and the conditional version bump, which is the multi-instance setup this mode is meant for.
+ */
+@SpringBootTest(properties = {
+        "hotel.availability.concurrency.mode=OPTIMISTIC",
+        "hotel.availability.index.enabled=false"
+})
+class OptimisticRoomServiceConcurrencyTest extends RoomServiceConcurrencyTest {
+}
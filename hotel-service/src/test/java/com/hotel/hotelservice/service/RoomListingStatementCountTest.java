@@ -0,0 +1,103 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.entity.Hotel;
+import com.hotel.hotelservice.entity.Room;
+import com.hotel.hotelservice.repository.HotelRepository;
+import com.hotel.hotelservice.repository.RoomRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Room listings must not load the hotel of every room lazily: the number of JDBC statements per call stays the
+ * same however many distinct hotels the returned rooms belong to.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@ActiveProfiles("test")
+class RoomListingStatementCountTest {
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Long> hotelIds = new ArrayList<>();
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hotelIds.forEach(hotelRepository::deleteById);
+    }
+
+    @Test
+    void roomListings_ShouldUseConstantNumberOfStatements() {
+        addHotels(2);
+        long fewHotels = statementsForListings();
+
+        addHotels(20);
+        long manyHotels = statementsForListings();
+
+        assertThat(manyHotels).isEqualTo(fewHotels);
+    }
+
+    @Test
+    void roomsByHotel_ShouldUseOneStatement() {
+        addHotels(1);
+        statistics.clear();
+
+        assertThat(roomService.getRoomsByHotel(hotelIds.get(0)))
+                .hasSize(3)
+                .allSatisfy(room -> assertThat(room.getHotelName()).startsWith("Listed "));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private long statementsForListings() {
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        statistics.clear();
+        roomService.getAllRooms();
+        roomService.getRecommendedRooms(null);
+        roomService.getRecommendedRoomsForDates(startDate, startDate.plusDays(2), null);
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addHotels(int count) {
+        for (int i = 0; i < count; i++) {
+            Hotel hotel = hotelRepository.save(Hotel.builder()
+                    .name("Listed " + UUID.randomUUID())
+                    .address("1 Listing Street")
+                    .build());
+            for (int r = 1; r <= 3; r++) {
+                roomRepository.save(Room.builder().hotel(hotel).number(String.valueOf(r)).build());
+            }
+            hotelIds.add(hotel.getId());
+        }
+    }
+}
@@ -24,13 +24,14 @@ import static org.assertj.core.api.Assertions.assertThat;
  * Integration tests for concurrent booking scenarios.
  * Tests that parallel bookings for the same room on overlapping dates
  * are properly handled with only one succeeding.
+ * Runs with the default PESSIMISTIC concurrency mode; subclasses repeat the scenarios in the other modes.
  */
 @SpringBootTest
 @ActiveProfiles("test")
 class RoomServiceConcurrencyTest {
 
     @Autowired
-    private RoomService roomService;
+    protected AvailabilityConfirmationService availabilityConfirmationService;
 
     @Autowired
     private RoomRepository roomRepository;
@@ -41,8 +42,11 @@ class RoomServiceConcurrencyTest {
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private HotelDayOccupancyRepository occupancyRepository;
+
     private Hotel testHotel;
-    private Room testRoom;
+    protected Room testRoom;
 
     @BeforeEach
     void setUp() {
@@ -99,7 +103,7 @@ class RoomServiceConcurrencyTest {
                             .bookingId((long) requestNum)
                             .build();
 
-                    AvailabilityResponse response = roomService.confirmAvailability(testRoom.getId(), request);
+                    AvailabilityResponse response = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
                     if (response.isConfirmed()) {
                         successCount.incrementAndGet();
                         return true;
@@ -130,6 +134,58 @@ class RoomServiceConcurrencyTest {
         assertThat(completed).isTrue();
         assertThat(successCount.get()).isEqualTo(1); // Only one should succeed
         assertThat(conflictCount.get()).isEqualTo(numberOfConcurrentRequests - 1); // Rest should get conflict
+        assertThat(roomLockRepository.findByRoomId(testRoom.getId())).hasSize(1); // No double booking persisted
+    }
+
+    @Test
+    void parallelBookings_ForManyRoomsOfOneHotel_AllShouldSucceedAndBeCounted() throws Exception {
+        // Given - more concurrent bookings than pooled connections, each for its own room of one new hotel
+        int numberOfRooms = 24;
+        LocalDate startDate = LocalDate.now().plusDays(40);
+        LocalDate endDate = startDate.plusDays(2);
+        Hotel hotel = hotelRepository.save(Hotel.builder()
+                .name("Busy Hotel " + UUID.randomUUID())
+                .address("1 Crowded St")
+                .build());
+        List<Room> rooms = new ArrayList<>();
+        for (int i = 0; i < numberOfRooms; i++) {
+            rooms.add(roomRepository.save(Room.builder().hotel(hotel).number("B" + i).available(true).timesBooked(0).build()));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfRooms);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // When
+        for (Room room : rooms) {
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                return availabilityConfirmationService.confirmAvailability(room.getId(), ConfirmAvailabilityRequest.builder()
+                        .startDate(startDate)
+                        .endDate(endDate)
+                        .requestId("busy-" + room.getId() + "-" + UUID.randomUUID())
+                        .build()).isConfirmed();
+            }));
+        }
+        startLatch.countDown();
+        List<Boolean> results = new ArrayList<>();
+        for (Future<Boolean> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        // Then - every room is locked and every night counts all of them
+        assertThat(results).containsOnly(true);
+        for (LocalDate night = startDate; !night.isAfter(endDate); night = night.plusDays(1)) {
+            LocalDate counted = night;
+            assertThat(occupancyRepository.findAll().stream()
+                    .filter(row -> row.getHotelId().equals(hotel.getId()) && row.getNight().equals(counted))
+                    .mapToInt(HotelDayOccupancy::getLockedRooms)
+                    .sum()).isEqualTo(numberOfRooms);
+        }
+        assertThat(hotelRepository.findIdsWithFreeRooms(List.of(hotel.getId()), startDate, endDate, 1)).isEmpty();
+        assertThat(hotelRepository.findIdsWithFreeRooms(List.of(hotel.getId()), endDate.plusDays(1), endDate.plusDays(1),
+                numberOfRooms)).containsExactly(hotel.getId());
     }
 
     @Test
@@ -161,7 +217,7 @@ class RoomServiceConcurrencyTest {
                             .bookingId((long) requestNum)
                             .build();
 
-                    AvailabilityResponse response = roomService.confirmAvailability(testRoom.getId(), request);
+                    AvailabilityResponse response = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
                     if (response.isConfirmed()) {
                         successCount.incrementAndGet();
                     }
@@ -197,9 +253,9 @@ class RoomServiceConcurrencyTest {
                 .build();
 
         // When - Send the same request multiple times
-        AvailabilityResponse response1 = roomService.confirmAvailability(testRoom.getId(), request);
-        AvailabilityResponse response2 = roomService.confirmAvailability(testRoom.getId(), request);
-        AvailabilityResponse response3 = roomService.confirmAvailability(testRoom.getId(), request);
+        AvailabilityResponse response1 = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
+        AvailabilityResponse response2 = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
+        AvailabilityResponse response3 = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
 
         // Then - All should be confirmed (idempotent)
         assertThat(response1.isConfirmed()).isTrue();
@@ -226,7 +282,7 @@ class RoomServiceConcurrencyTest {
         // When - Send the same request multiple times sequentially
         int successCount = 0;
         for (int i = 0; i < 10; i++) {
-            AvailabilityResponse response = roomService.confirmAvailability(testRoom.getId(), request);
+            AvailabilityResponse response = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
             if (response.isConfirmed()) {
                 successCount++;
             }
@@ -264,7 +320,7 @@ class RoomServiceConcurrencyTest {
                             .bookingId(1L)
                             .build();
 
-                    AvailabilityResponse response = roomService.confirmAvailability(testRoom.getId(), request);
+                    AvailabilityResponse response = availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
                     if (response.isConfirmed()) {
                         successCount.incrementAndGet();
                     }
@@ -285,4 +341,140 @@ class RoomServiceConcurrencyTest {
         assertThat(completed).isTrue();
         assertThat(successCount.get()).isGreaterThanOrEqualTo(1);
     }
+
+    @Test
+    void groupRequest_ShouldLockAllRoomsOnceAndRetryIdempotently() {
+        // Given - a second free room so the group can be satisfied
+        roomRepository.save(Room.builder()
+                .hotel(testHotel)
+                .number("TEST-" + UUID.randomUUID().toString().substring(0, 8))
+                .available(true)
+                .timesBooked(0)
+                .build());
+        GroupAvailabilityRequest request = GroupAvailabilityRequest.builder()
+                .startDate(LocalDate.now().plusDays(300))
+                .endDate(LocalDate.now().plusDays(302))
+                .rooms(2)
+                .requestId("group-" + UUID.randomUUID())
+                .bookingId(7L)
+                .build();
+
+        // When
+        GroupAvailabilityResponse first = availabilityConfirmationService.confirmGroupAvailability(testHotel.getId(), request);
+        GroupAvailabilityResponse retry = availabilityConfirmationService.confirmGroupAvailability(testHotel.getId(), request);
+
+        // Then - two distinct rooms, one lock each, and the retry returns the same rooms
+        List<Long> roomIds = first.getRooms().stream().map(AvailabilityResponse::getRoomId).toList();
+        assertThat(roomIds).hasSize(2).doesNotHaveDuplicates();
+        assertThat(retry.getRooms()).extracting(AvailabilityResponse::getRoomId).containsExactlyInAnyOrderElementsOf(roomIds);
+        assertThat(retry.getMessage()).contains("idempotent");
+        assertThat(roomLockRepository.findByRequestIdIn(List.of(request.getRequestId() + "-1", request.getRequestId() + "-2")))
+                .extracting(lock -> lock.getRoom().getId())
+                .containsExactlyInAnyOrderElementsOf(roomIds);
+    }
+
+    @Test
+    void parallelGroupRequests_ForAllRoomsOfHotel_OnlyOneShouldSucceed() throws Exception {
+        // Given - every available room of the hotel requested by several groups at once
+        Hotel hotel = hotelRepository.save(Hotel.builder().name("Group Hotel").address("1 Group St").build());
+        for (int i = 0; i < 3; i++) {
+            roomRepository.save(Room.builder().hotel(hotel).number("G" + i).available(true).timesBooked(0).build());
+        }
+        int numberOfConcurrentRequests = 5;
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfConcurrentRequests);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        AtomicInteger successCount = new AtomicInteger(0);
+        AtomicInteger conflictCount = new AtomicInteger(0);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < numberOfConcurrentRequests; i++) {
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                GroupAvailabilityRequest request = GroupAvailabilityRequest.builder()
+                        .startDate(startDate)
+                        .endDate(endDate)
+                        .rooms(3)
+                        .requestId("parallel-group-" + UUID.randomUUID())
+                        .build();
+                try {
+                    availabilityConfirmationService.confirmGroupAvailability(hotel.getId(), request);
+                    successCount.incrementAndGet();
+                } catch (RoomNotAvailableException e) {
+                    conflictCount.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        startLatch.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then - no partial groups: exactly three locks, all from the single winner
+        assertThat(successCount.get()).isEqualTo(1);
+        assertThat(conflictCount.get()).isEqualTo(numberOfConcurrentRequests - 1);
+        assertThat(roomRepository.findByHotelId(hotel.getId()))
+                .allSatisfy(room -> assertThat(roomLockRepository.findByRoomId(room.getId())).hasSize(1));
+    }
+
+    @Test
+    void maintenanceBlocks_ShouldBlockLikeBookingsAndUnblockOnlyTheirWindow() {
+        // Given - a floor of two rooms blocked for ten nights
+        Room neighbour = roomRepository.save(Room.builder()
+                .hotel(testHotel)
+                .number("TEST-" + UUID.randomUUID().toString().substring(0, 8))
+                .available(true)
+                .timesBooked(0)
+                .build());
+        LocalDate start = LocalDate.now().plusDays(20);
+        MaintenanceRequest block = MaintenanceRequest.builder()
+                .requestId("floor-" + UUID.randomUUID())
+                .windows(List.of(MaintenanceWindow.builder()
+                        .roomIds(List.of(testRoom.getId(), neighbour.getId()))
+                        .startDate(start)
+                        .endDate(start.plusDays(9))
+                        .build()))
+                .build();
+
+        List<MaintenanceBlockDto> blocks = availabilityConfirmationService.blockRooms(block);
+
+        // Then - blocked nights cannot be booked, and a retried request returns the same blocks
+        assertThat(blocks).extracting(MaintenanceBlockDto::getRoomId).containsExactly(testRoom.getId(), neighbour.getId());
+        assertThat(availabilityConfirmationService.blockRooms(block)).isEqualTo(blocks);
+        assertThat(confirm(start.plusDays(2), start.plusDays(3))).isFalse();
+
+        // When - two nights in the middle are unblocked for the first room only
+        availabilityConfirmationService.unblockRooms(MaintenanceRequest.builder()
+                .windows(List.of(MaintenanceWindow.builder()
+                        .roomIds(List.of(testRoom.getId()))
+                        .startDate(start.plusDays(4))
+                        .endDate(start.plusDays(5))
+                        .build()))
+                .build());
+
+        // Then - the block is split around the window and only the window's nights are free
+        assertThat(roomLockRepository.findSpansByRoomId(testRoom.getId()))
+                .extracting(span -> List.of(span.startDate(), span.endDate()))
+                .containsExactlyInAnyOrder(List.of(start, start.plusDays(3)), List.of(start.plusDays(6), start.plusDays(9)));
+        assertThat(roomLockRepository.findSpansByRoomId(neighbour.getId())).hasSize(1);
+        assertThat(confirm(start.plusDays(3), start.plusDays(4))).isFalse();
+        assertThat(confirm(start.plusDays(4), start.plusDays(5))).isTrue();
+        assertThat(confirm(start.plusDays(6), start.plusDays(6))).isFalse();
+    }
+
+    private boolean confirm(LocalDate startDate, LocalDate endDate) {
+        try {
+            return availabilityConfirmationService.confirmAvailability(testRoom.getId(), ConfirmAvailabilityRequest.builder()
+                    .startDate(startDate)
+                    .endDate(endDate)
+                    .requestId("maintenance-test-" + UUID.randomUUID())
+                    .build()).isConfirmed();
+        } catch (RoomNotAvailableException e) {
+            return false;
+        }
+    }
 }
@@ -1,5 +1,12 @@
 package com.hotel.hotelservice.service;
 
+import com.hotel.hotelservice.availability.HotelOccupancyCounters;
+import com.hotel.hotelservice.availability.IdempotencyCache;
+import com.hotel.hotelservice.availability.RoomAvailabilityIndex;
+import com.hotel.hotelservice.availability.RoomConcurrencyControl;
+import com.hotel.hotelservice.availability.RoomLockSpan;
+import com.hotel.hotelservice.availability.TimesBookedBuffer;
+import com.hotel.hotelservice.catalog.CatalogCache;
 import com.hotel.hotelservice.dto.*;
 import com.hotel.hotelservice.entity.*;
 import com.hotel.hotelservice.exception.*;
@@ -11,8 +18,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -29,12 +42,33 @@ class RoomServiceTest {
     @Mock
     private RoomLockRepository roomLockRepository;
 
+    @Mock
+    private RoomNightRepository roomNightRepository;
+
     @Mock
     private HotelRepository hotelRepository;
 
     @Mock
     private HotelMapper hotelMapper;
 
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Mock
+    private RoomConcurrencyControl concurrencyControl;
+
+    @Mock
+    private IdempotencyCache idempotencyCache;
+
+    @Mock
+    private TimesBookedBuffer timesBookedBuffer;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private HotelOccupancyCounters occupancyCounters;
+
     @InjectMocks
     private RoomService roomService;
 
@@ -43,6 +77,8 @@ class RoomServiceTest {
 
     @BeforeEach
     void setUp() {
+        lenient().when(concurrencyControl.requiresRowLock()).thenReturn(true);
+
         testHotel = Hotel.builder()
                 .id(1L)
                 .name("Test Hotel")
@@ -75,6 +111,7 @@ class RoomServiceTest {
         when(roomLockRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
         when(roomRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testRoom));
         when(roomLockRepository.existsOverlappingLock(eq(1L), any(), any())).thenReturn(false);
+        when(availabilityIndex.tryReserve(1L, requestId, startDate, endDate)).thenReturn(true);
         when(roomLockRepository.save(any(RoomLock.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // When
@@ -87,6 +124,58 @@ class RoomServiceTest {
         verify(roomLockRepository).save(any(RoomLock.class));
     }
 
+    @Test
+    void confirmAvailability_WithReadyIndexInStripedMode_ShouldNotQueryOverlaps() {
+        // Given
+        String requestId = UUID.randomUUID().toString();
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+
+        ConfirmAvailabilityRequest request = ConfirmAvailabilityRequest.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .requestId(requestId)
+                .build();
+
+        when(concurrencyControl.requiresRowLock()).thenReturn(false);
+        when(concurrencyControl.trustsAvailabilityIndex()).thenReturn(true);
+        when(roomLockRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(testRoom));
+        when(availabilityIndex.isReady()).thenReturn(true);
+        when(availabilityIndex.tryReserve(1L, requestId, startDate, endDate)).thenReturn(false);
+
+        // When/Then
+        assertThatThrownBy(() -> roomService.confirmAvailability(1L, request))
+                .isInstanceOf(RoomNotAvailableException.class);
+        verify(roomLockRepository, never()).existsOverlappingLock(anyLong(), any(), any());
+        verify(roomLockRepository, never()).save(any(RoomLock.class));
+    }
+
+    @Test
+    void confirmAvailability_WithReadyIndexInPessimisticMode_ShouldStillCheckDatabase() {
+        // Given - another instance's lock is in room_locks but not in this instance's index
+        String requestId = UUID.randomUUID().toString();
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+
+        ConfirmAvailabilityRequest request = ConfirmAvailabilityRequest.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .requestId(requestId)
+                .build();
+
+        when(roomLockRepository.findByRequestId(requestId)).thenReturn(Optional.empty());
+        when(roomRepository.findByIdWithLock(1L)).thenReturn(Optional.of(testRoom));
+        lenient().when(availabilityIndex.isReady()).thenReturn(true);
+        lenient().when(availabilityIndex.tryReserve(1L, requestId, startDate, endDate)).thenReturn(true);
+        when(roomLockRepository.existsOverlappingLock(1L, startDate, endDate)).thenReturn(true);
+
+        // When/Then
+        assertThatThrownBy(() -> roomService.confirmAvailability(1L, request))
+                .isInstanceOf(RoomNotAvailableException.class);
+        verify(roomLockRepository, never()).save(any(RoomLock.class));
+    }
+
     @Test
     void confirmAvailability_WithIdempotentRequest_ShouldReturnExisting() {
         // Given
@@ -207,6 +296,31 @@ class RoomServiceTest {
 
         // Then
         verify(roomLockRepository).delete(lock);
+        verify(availabilityIndex).release(1L, requestId);
+    }
+
+    @Test
+    void releaseRoom_WithMaintenanceBlock_ShouldRefuseAndKeepTimesBooked() {
+        // Given
+        String requestId = "renovation-1";
+        RoomLock block = RoomLock.builder()
+                .id(1L)
+                .room(testRoom)
+                .requestId(requestId)
+                .type(LockType.MAINTENANCE)
+                .confirmed(true)
+                .build();
+
+        when(roomLockRepository.findByRoomIdAndRequestId(1L, requestId)).thenReturn(Optional.of(block));
+
+        // When/Then
+        assertThatThrownBy(() -> roomService.releaseRoom(1L, ReleaseRoomRequest.builder().requestId(requestId).build()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maintenance");
+        assertThatThrownBy(() -> roomService.confirmBooking(1L, requestId))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verify(roomLockRepository, never()).delete(any(RoomLock.class));
+        verify(timesBookedBuffer, never()).record(anyLong(), anyLong());
     }
 
     @Test
@@ -237,15 +351,177 @@ class RoomServiceTest {
 
         when(roomLockRepository.findByRoomIdAndRequestId(1L, requestId)).thenReturn(Optional.of(lock));
         when(roomLockRepository.save(any(RoomLock.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(roomRepository.save(any(Room.class))).thenAnswer(inv -> inv.getArgument(0));
 
         // When
         roomService.confirmBooking(1L, requestId);
 
         // Then
         assertThat(lock.getConfirmed()).isTrue();
-        assertThat(testRoom.getTimesBooked()).isEqualTo(1);
         verify(roomLockRepository).save(lock);
-        verify(roomRepository).save(testRoom);
+        verify(timesBookedBuffer).record(1L, 1);
+        verify(roomRepository, never()).save(any(Room.class));
+    }
+
+    @Test
+    void getRecommendedRoomsForDates_WithLimit_ShouldPassLimitToQuery() {
+        // Given
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        RoomDto room = roomDto(1L);
+        when(roomRepository.findAvailableRoomsForDates(startDate, endDate, Limit.of(1)))
+                .thenReturn(List.of(room));
+
+        // When
+        List<RoomDto> result = roomService.getRecommendedRoomsForDates(startDate, endDate, 1);
+
+        // Then
+        assertThat(result).containsExactly(room);
+    }
+
+    @Test
+    void getRecommendedRoomsForDates_WithLimitAndIndex_ShouldStopAtFirstFreeRooms() {
+        // Given
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        RoomDto busyRoom = roomDto(2L);
+        RoomDto freeRoom = roomDto(1L);
+        when(availabilityIndex.coversRange(startDate, endDate)).thenReturn(true);
+        when(roomRepository.findAvailableRoomsSortedByTimesBooked(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(busyRoom, freeRoom, roomDto(3L))));
+        when(availabilityIndex.isFree(2L, startDate, endDate)).thenReturn(false);
+        when(availabilityIndex.isFree(1L, startDate, endDate)).thenReturn(true);
+
+        // When
+        List<RoomDto> result = roomService.getRecommendedRoomsForDates(startDate, endDate, 1);
+
+        // Then
+        assertThat(result).containsExactly(freeRoom);
+        verify(availabilityIndex, never()).isFree(eq(3L), any(), any());
+    }
+
+    @Test
+    void getRecommendedRoomsForDates_WithPendingBookings_ShouldOverFetchAndRerankBeforeLimit() {
+        // Given - room 1 is first in the database but has a booking that is not flushed yet
+        LocalDate startDate = LocalDate.now().plusDays(1);
+        LocalDate endDate = LocalDate.now().plusDays(3);
+        RoomDto booked = roomDto(1L);
+        RoomDto next = roomDto(2L);
+        when(timesBookedBuffer.pendingIncreases()).thenReturn(1L);
+        when(timesBookedBuffer.pendingRooms()).thenReturn(1L);
+        when(timesBookedBuffer.pending(1L)).thenReturn(1L);
+        when(roomRepository.findAvailableRoomsForDates(startDate, endDate, Limit.of(2)))
+                .thenReturn(List.of(booked, next));
+
+        // When
+        List<RoomDto> result = roomService.getRecommendedRoomsForDates(startDate, endDate, 1);
+
+        // Then
+        assertThat(result).containsExactly(next);
+    }
+
+    @Test
+    void getRecommendedRooms_WithNonPositiveLimit_ShouldThrowException() {
+        assertThatThrownBy(() -> roomService.getRecommendedRooms(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Limit");
+    }
+
+    @Test
+    void scrollAvailableRooms_ShouldSeekAfterCursorKey() {
+        // Given
+        RoomDto first = roomDto(7L);
+        first.setTimesBooked(3);
+        when(roomRepository.findAvailableRoomsSortedByTimesBooked(PageRequest.of(0, 1)))
+                .thenReturn(new SliceImpl<>(List.of(first), PageRequest.of(0, 1), true));
+        RoomDto second = roomDto(9L);
+        when(roomRepository.findAvailableRoomsAfter(3, 7L, Limit.of(2))).thenReturn(List.of(second));
+
+        // When
+        CursorPage<RoomDto> firstPage = roomService.scrollAvailableRooms(null, null, 1);
+        CursorPage<RoomDto> secondPage = roomService.scrollAvailableRooms(null, firstPage.getNextCursor(), 1);
+
+        // Then
+        assertThat(firstPage.getContent()).containsExactly(first);
+        assertThat(secondPage.getContent()).containsExactly(second);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    void scrollAvailableRooms_WithOversizedPage_ShouldThrowException() {
+        assertThatThrownBy(() -> roomService.scrollAvailableRooms(null, null, 1000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Size");
+    }
+
+    @Test
+    void getAvailabilityMatrix_ShouldPackLockedDaysOfEachRoomFromOneQuery() {
+        // Given
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        LocalDate end = start.plusDays(9);
+        when(hotelRepository.existsById(1L)).thenReturn(true);
+        when(catalogCache.hotelRooms(eq(1L), any())).thenReturn(List.of(roomDto(1L), roomDto(2L), roomDto(3L)));
+        when(roomLockRepository.findHotelSpansOverlapping(1L, start, end)).thenReturn(List.of(
+                new RoomLockSpan(1L, start.minusDays(2), start.plusDays(1), "a"),
+                new RoomLockSpan(2L, start.plusDays(8), start.plusDays(20), "b")));
+
+        // When
+        AvailabilityMatrixDto matrix = roomService.getAvailabilityMatrix(1L, start, end);
+
+        // Then: 10 days fit in two bytes, day i is bit i % 8 of byte i / 8
+        assertThat(matrix.getDays()).isEqualTo(10);
+        assertThat(matrix.getRooms()).extracting(RoomOccupancyDto::getRoomId).containsExactly(1L, 2L, 3L);
+        assertThat(matrix.getRooms()).extracting(row -> Base64.getDecoder().decode(row.getOccupied()))
+                .containsExactly(new byte[]{0b11, 0}, new byte[]{0, 0b11}, new byte[]{0, 0});
+        verify(availabilityIndex, never()).markOccupied(any(), any(), any(), any());
+    }
+
+    @Test
+    void getAvailabilityMatrix_WithTooLongRange_ShouldThrowException() {
+        LocalDate start = LocalDate.of(2030, 1, 1);
+
+        assertThatThrownBy(() -> roomService.getAvailabilityMatrix(1L, start, start.plusDays(366)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("366");
+        verifyNoInteractions(roomLockRepository);
+    }
+
+    @Test
+    void findStayWindows_ShouldCountFreeRoomsPerWindowInOnePass() {
+        // Given: room 1 is locked on days 2-3, room 2 on day 0, room 3 is free all week
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        LocalDate end = start.plusDays(6);
+        when(roomRepository.findAvailableRoomDtos()).thenReturn(List.of(roomDto(1L), roomDto(2L), roomDto(3L)));
+        when(roomLockRepository.findSpansOverlapping(start, end)).thenReturn(List.of(
+                new RoomLockSpan(1L, start.plusDays(2), start.plusDays(3), "a"),
+                new RoomLockSpan(2L, start.minusDays(1), start, "b")));
+
+        // When
+        List<StayWindowDto> earliest = roomService.findStayWindows(null, 3, start, end, StayWindowOrder.EARLIEST, 2);
+        List<StayWindowDto> leastContended = roomService.findStayWindows(null, 3, start, end,
+                StayWindowOrder.LEAST_CONTENDED, 2);
+
+        // Then
+        assertThat(earliest).containsExactly(
+                new StayWindowDto(start, start.plusDays(2), 1),
+                new StayWindowDto(start.plusDays(1), start.plusDays(3), 2));
+        assertThat(leastContended).containsExactly(
+                new StayWindowDto(start.plusDays(4), start.plusDays(6), 3),
+                new StayWindowDto(start.plusDays(1), start.plusDays(3), 2));
+        verify(roomLockRepository, times(2)).findSpansOverlapping(start, end);
+        verifyNoMoreInteractions(roomLockRepository);
+    }
+
+    @Test
+    void findStayWindows_WithStayLongerThanRange_ShouldThrowException() {
+        LocalDate start = LocalDate.of(2030, 1, 1);
+
+        assertThatThrownBy(() -> roomService.findStayWindows(null, 5, start, start.plusDays(2),
+                StayWindowOrder.EARLIEST, 5))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("5 nights");
+    }
+
+    private RoomDto roomDto(Long id) {
+        return new RoomDto(id, testHotel.getId(), testHotel.getName(), "R" + id, true, 0);
     }
 }
@@ -0,0 +1,44 @@
+package com.hotel.hotelservice.service;
+
+import com.hotel.hotelservice.dto.ConfirmAvailabilityRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent booking scenarios with per-room in-JVM lock stripes instead of the database row lock.
+ * The in-memory availability index is disabled, since its reservations would reject double bookings on their
+ * own; without it only the stripes keep the overlap check and the insert of two bookings apart.
+ */
+@SpringBootTest(properties = {
+        "hotel.availability.concurrency.mode=STRIPED",
+        "hotel.availability.index.enabled=false"
+})
+class StripedRoomServiceConcurrencyTest extends RoomServiceConcurrencyTest {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void stripeWaits_ShouldBeRecorded() {
+        ConfirmAvailabilityRequest request = ConfirmAvailabilityRequest.builder()
+                .startDate(LocalDate.now().plusDays(1))
+                .endDate(LocalDate.now().plusDays(2))
+                .requestId("striped-metrics-" + UUID.randomUUID())
+                .build();
+
+        availabilityConfirmationService.confirmAvailability(testRoom.getId(), request);
+
+        long recorded = meterRegistry.find("hotel.rooms.stripe.wait").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+        assertThat(recorded).isPositive();
+    }
+}
@@ -0,0 +1,50 @@
+package com.hotel.hotelservice.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiringMapTest {
+
+    private final List<ExpiringMap.Eviction> evictions = new ArrayList<>();
+
+    @Test
+    void put_ShouldDropEldestEntriesBeyondMaxWeight() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(1), 5, String::length, evictions::add);
+        map.put("a", "xx");
+        map.put("b", "xx");
+        map.put("a", "xx");
+        map.put("c", "xx");
+
+        assertThat(map.get("b")).isNull();
+        assertThat(map.get("a")).isEqualTo("xx");
+        assertThat(map.weight()).isEqualTo(4);
+        assertThat(evictions).containsExactly(ExpiringMap.Eviction.SIZE);
+    }
+
+    @Test
+    void get_ShouldDropExpiredEntry() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ZERO, 10, value -> 1, evictions::add);
+        map.put("a", "x");
+
+        assertThat(map.get("a")).isNull();
+        assertThat(map.size()).isZero();
+        assertThat(map.weight()).isZero();
+    }
+
+    @Test
+    void removeIf_ShouldKeepWeightInSync() {
+        ExpiringMap<String, String> map = new ExpiringMap<>(Duration.ofMinutes(1), 10, String::length, evictions::add);
+        map.put("a", "xxx");
+        map.put("b", "x");
+
+        map.removeIf((key, value) -> value.length() > 1);
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.weight()).isEqualTo(1);
+    }
+}